@@ -1,93 +1,220 @@
-//GUI responsible for calculating the difference between 2 days
-
-import javax.swing.*;
-import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
-
-public class CalculateDaysGUI extends JDialog {
-    private JTextField firstDayField;
-    private JTextField secondDayField;
-    private JButton calculateButton;
-    private JLabel resultLabel;
-
-    public CalculateDaysGUI(Frame owner) {
-        super(owner, "Calculate Days Between Dates", true);
-        initializeUI();
-        pack();
-        setLocationRelativeTo(owner);
-    }
-
-    // Initialize the UI
-    private void initializeUI() {
-
-        setLayout(new BorderLayout());
-        setSize(500, 300);
-
-        JPanel contentPanel = new JPanel();
-        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
-        contentPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 30, 10));
-        setContentPane(contentPanel);
-
-        // Create a panel for the first date input
-        JPanel firstDayPanel = new JPanel();
-        firstDayPanel.setLayout(new BoxLayout(firstDayPanel, BoxLayout.LINE_AXIS));
-        firstDayPanel.add(new JLabel("First day (yyyy/mm/dd):"));
-        firstDayPanel.add(Box.createRigidArea(new Dimension(5, 0))); // Add space between label and text field
-        firstDayField = new JTextField(10);
-        firstDayPanel.add(firstDayField);
-        contentPanel.add(firstDayPanel);
-
-        // Add space in between buttons
-        contentPanel.add(Box.createVerticalStrut(15));
-
-        // Create a panel for the second date input
-        JPanel secondDayPanel = new JPanel();
-        secondDayPanel.setLayout(new BoxLayout(secondDayPanel, BoxLayout.LINE_AXIS));
-        secondDayPanel.add(new JLabel("Second day (yyyy/mm/dd):"));
-        secondDayPanel.add(Box.createRigidArea(new Dimension(5, 0))); // Add space between label and text field
-        secondDayField = new JTextField(10);
-        secondDayPanel.add(secondDayField);
-        contentPanel.add(secondDayPanel);
-
-        contentPanel.add(Box.createVerticalStrut(15));
-
-        // Create a panel for the calculate button
-        JPanel calculateButtonPanel = new JPanel();
-        calculateButtonPanel.setLayout(new BoxLayout(calculateButtonPanel, BoxLayout.LINE_AXIS));
-        calculateButtonPanel.add(Box.createHorizontalGlue());
-        calculateButton = new JButton("Calculate");
-        calculateButton.addActionListener(this::handleCalculate);
-        calculateButtonPanel.add(calculateButton);
-        calculateButtonPanel.add(Box.createHorizontalGlue());
-        contentPanel.add(calculateButtonPanel);
-
-        contentPanel.add(Box.createVerticalStrut(15));
-
-        // Create a panel for the result label
-        JPanel resultPanel = new JPanel();
-        resultPanel.setLayout(new BoxLayout(resultPanel, BoxLayout.LINE_AXIS));
-        resultPanel.add(Box.createHorizontalGlue());
-        resultLabel = new JLabel("");
-        resultLabel.setFont(resultLabel.getFont().deriveFont(16.0f)); // Make the font larger
-        resultPanel.add(resultLabel);
-        resultPanel.add(Box.createHorizontalGlue());
-        contentPanel.add(resultPanel);
-    }
-
-    // Calculate the date difference
-    private void handleCalculate(ActionEvent e) {
-        try {
-            LocalDate firstDay = LocalDate.parse(firstDayField.getText(), DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-            LocalDate secondDay = LocalDate.parse(secondDayField.getText(), DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-            long daysBetween = Math.abs(ChronoUnit.DAYS.between(firstDay, secondDay));
-            resultLabel.setText(daysBetween + " Days");
-        } catch (DateTimeParseException ex) {
-            JOptionPane.showMessageDialog(this, "Please enter the dates in the correct format (yyyy/mm/dd).",
-                    "Format Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-}
+//GUI responsible for calculating the difference between 2 days, and the days from one day to every tracked date
+
+import core.BusinessCalendar;
+import core.Date;
+import core.DateManager;
+import core.DayCalculator;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.time.LocalDate;
+import java.util.List;
+
+public class CalculateDaysGUI extends JDialog {
+    private DateManager dateManager; // null while the dates are still loading
+    private BusinessCalendar businessCalendar; // null while the dates are still loading
+    private JTextField firstDayField;
+    private JTextField secondDayField;
+    private JButton calculateButton;
+    private JCheckBox businessDaysCheckBox;
+    private JLabel resultLabel;
+    private JTextField anchorField;
+    private DaysUntilTableModel daysUntilModel;
+
+    public CalculateDaysGUI(Frame owner, DateManager dateManager, BusinessCalendar businessCalendar) {
+        super(owner, "Calculate Days Between Dates", true);
+        this.dateManager = dateManager;
+        this.businessCalendar = businessCalendar;
+        initializeUI();
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    // Initialize the UI
+    private void initializeUI() {
+
+        setLayout(new BorderLayout());
+        setSize(500, 300);
+
+        JPanel contentPanel = new JPanel();
+        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 30, 10));
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Two Days", contentPanel);
+        tabs.addTab("Days Until Each Date", createDaysUntilPanel());
+        setContentPane(tabs);
+
+        // Create a panel for the first date input
+        JPanel firstDayPanel = new JPanel();
+        firstDayPanel.setLayout(new BoxLayout(firstDayPanel, BoxLayout.LINE_AXIS));
+        firstDayPanel.add(new JLabel("First day (yyyy/mm/dd):"));
+        firstDayPanel.add(Box.createRigidArea(new Dimension(5, 0))); // Add space between label and text field
+        firstDayField = new JTextField(10);
+        firstDayPanel.add(firstDayField);
+        contentPanel.add(firstDayPanel);
+
+        // Add space in between buttons
+        contentPanel.add(Box.createVerticalStrut(15));
+
+        // Create a panel for the second date input
+        JPanel secondDayPanel = new JPanel();
+        secondDayPanel.setLayout(new BoxLayout(secondDayPanel, BoxLayout.LINE_AXIS));
+        secondDayPanel.add(new JLabel("Second day (yyyy/mm/dd):"));
+        secondDayPanel.add(Box.createRigidArea(new Dimension(5, 0))); // Add space between label and text field
+        secondDayField = new JTextField(10);
+        secondDayPanel.add(secondDayField);
+        contentPanel.add(secondDayPanel);
+
+        contentPanel.add(Box.createVerticalStrut(15));
+
+        // Business days mode, leaves out weekends and every date tagged holiday
+        JPanel businessDaysPanel = new JPanel();
+        businessDaysPanel.setLayout(new BoxLayout(businessDaysPanel, BoxLayout.LINE_AXIS));
+        businessDaysCheckBox = new JCheckBox("Business days only (no weekends or holidays)");
+        businessDaysCheckBox.setEnabled(businessCalendar != null);
+        businessDaysPanel.add(businessDaysCheckBox);
+        businessDaysPanel.add(Box.createHorizontalGlue());
+        contentPanel.add(businessDaysPanel);
+
+        contentPanel.add(Box.createVerticalStrut(15));
+
+        // Create a panel for the calculate button
+        JPanel calculateButtonPanel = new JPanel();
+        calculateButtonPanel.setLayout(new BoxLayout(calculateButtonPanel, BoxLayout.LINE_AXIS));
+        calculateButtonPanel.add(Box.createHorizontalGlue());
+        calculateButton = new JButton("Calculate");
+        calculateButton.addActionListener(this::handleCalculate);
+        calculateButtonPanel.add(calculateButton);
+        calculateButtonPanel.add(Box.createHorizontalGlue());
+        contentPanel.add(calculateButtonPanel);
+
+        contentPanel.add(Box.createVerticalStrut(15));
+
+        // Create a panel for the result label
+        JPanel resultPanel = new JPanel();
+        resultPanel.setLayout(new BoxLayout(resultPanel, BoxLayout.LINE_AXIS));
+        resultPanel.add(Box.createHorizontalGlue());
+        resultLabel = new JLabel("");
+        resultLabel.setFont(resultLabel.getFont().deriveFont(16.0f)); // Make the font larger
+        resultPanel.add(resultLabel);
+        resultPanel.add(Box.createHorizontalGlue());
+        contentPanel.add(resultPanel);
+    }
+
+    // The anchor day on top and every tracked date below it, nearest first
+    private JPanel createDaysUntilPanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel anchorPanel = new JPanel();
+        anchorPanel.setLayout(new BoxLayout(anchorPanel, BoxLayout.LINE_AXIS));
+        anchorPanel.add(new JLabel("From day (yyyy/mm/dd):"));
+        anchorPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+        anchorField = new JTextField(LocalDate.now().format(DayCalculator.FORMAT), 10);
+        anchorPanel.add(anchorField);
+        anchorPanel.add(Box.createRigidArea(new Dimension(5, 0)));
+        JButton showButton = new JButton("Show");
+        showButton.addActionListener(this::handleDaysUntil);
+        showButton.setEnabled(dateManager != null);
+        anchorPanel.add(showButton);
+        panel.add(anchorPanel, BorderLayout.NORTH);
+
+        daysUntilModel = new DaysUntilTableModel();
+        JScrollPane scrollPane = new JScrollPane(new JTable(daysUntilModel));
+        scrollPane.setPreferredSize(new Dimension(460, 240));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        if (dateManager != null) {
+            handleDaysUntil(null);
+        }
+        return panel;
+    }
+
+    // Calculate the date difference
+    private void handleCalculate(ActionEvent e) {
+        long firstDay = DayCalculator.parseEpochDay(firstDayField.getText());
+        long secondDay = DayCalculator.parseEpochDay(secondDayField.getText());
+        if (firstDay == DayCalculator.INVALID || secondDay == DayCalculator.INVALID) {
+            JOptionPane.showMessageDialog(this, "Please enter the dates in the correct format (yyyy/mm/dd).",
+                    "Format Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (businessDaysCheckBox.isSelected()) {
+            resultLabel.setText(businessCalendar.businessDaysBetween(firstDay, secondDay) + " Business Days");
+        } else {
+            resultLabel.setText(Math.abs(secondDay - firstDay) + " Days");
+        }
+    }
+
+    // Works out the days from the anchor to every tracked date and shows them nearest first
+    private void handleDaysUntil(ActionEvent e) {
+        long anchor = DayCalculator.parseEpochDay(anchorField.getText());
+        if (anchor == DayCalculator.INVALID) {
+            JOptionPane.showMessageDialog(this, "Please enter the day in the correct format (yyyy/mm/dd).",
+                    "Format Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        List<Date> dates = dateManager.getAllDates();
+        daysUntilModel.setRows(dates, DayCalculator.daysUntil(LocalDate.ofEpochDay(anchor), dates));
+    }
+
+    // Name, day, type and days until of each date, in order of days until
+    private static class DaysUntilTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private static final String[] COLUMNS = { "Name", "Day", "Type", "Days Until" };
+
+        private Date[] dates = new Date[0];
+        private long[] days = new long[0];
+
+        // Days until are 0 to 365, so counting them orders the rows without comparing any two
+        void setRows(List<Date> allDates, long[] allDays) {
+            int[] starts = new int[367];
+            for (long day : allDays) {
+                starts[(int) day + 1]++;
+            }
+            for (int i = 1; i < starts.length; i++) {
+                starts[i] += starts[i - 1];
+            }
+            dates = new Date[allDays.length];
+            days = new long[allDays.length];
+            for (int i = 0; i < allDays.length; i++) {
+                int row = starts[(int) allDays[i]]++;
+                dates[row] = allDates.get(i);
+                days[row] = allDays[i];
+            }
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return dates.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Date date = dates[row];
+            switch (column) {
+                case 0:
+                    return date.getName() != null ? date.getName() : "Unnamed";
+                case 1:
+                    return date.getDay().getMonthValue() + "/" + date.getDay().getDayOfMonth();
+                case 2:
+                    return date.getType();
+                default:
+                    return days[row];
+            }
+        }
+    }
+}
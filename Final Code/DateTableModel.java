@@ -0,0 +1,192 @@
+//Table model for the MainGUI that reads rows straight from a list of dates instead of copying them
+
+import core.Date;
+import core.DateChangeEvent;
+import core.DateManager;
+import core.DateSnapshot;
+import core.DayRolloverService;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DateTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NAME_COLUMN = 0;
+    public static final int DATE_COLUMN = 1;
+    public static final int DAYS_COLUMN = 2;
+    public static final int STICKIED_COLUMN = 3;
+
+    private static final String[] COLUMN_NAMES = { "Name", "Date", "Days From Today", "Stickied" };
+
+    // Above this many changes at once a single refresh is cheaper than one event per row
+    private static final int MAX_ROW_EVENTS = 256;
+
+    private DateManager dateManager; // null while the dates are still loading
+    private DayRolloverService dayRollover;
+    private List<Date> rows = new ArrayList<>(); // usually the dates of a DateManager snapshot
+    private long rowsVersion = -1; // version of the snapshot shown, -1 when the rows are not a snapshot
+    private int announcedRowCount; // row count the table was last told about
+
+    public DateTableModel(DateManager dateManager) {
+        this.dateManager = dateManager;
+        this.dayRollover = dateManager.getDayRollover();
+    }
+
+    // For a table that shows dates with appendRows while the DateManager is still loading
+    public DateTableModel(DayRolloverService dayRollover) {
+        this.dayRollover = dayRollover;
+    }
+
+    // Switches over to the DateManager once it has loaded, the rows stay until they are replaced
+    public void setDateManager(DateManager dateManager) {
+        this.dateManager = dateManager;
+        this.dayRollover = dateManager.getDayRollover();
+    }
+
+    // Adds dates below the current rows, used to fill the table while loading
+    public void appendRows(List<Date> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        if (!(rows instanceof ArrayList) || rowsVersion >= 0) {
+            rows = new ArrayList<>(rows);
+            rowsVersion = -1;
+        }
+        int firstRow = rows.size();
+        rows.addAll(dates);
+        announcedRowCount = rows.size();
+        fireTableRowsInserted(firstRow, rows.size() - 1);
+    }
+
+    // Shows the given dates as they are
+    public void setRows(List<Date> rows) {
+        this.rows = rows;
+        rowsVersion = -1;
+        refresh();
+    }
+
+    // Shows every date of the latest snapshot, applyChanges then moves the rows on to newer snapshots
+    public void showAllDates() {
+        DateSnapshot snapshot = dateManager.getSnapshot();
+        rows = snapshot.getAllDates();
+        rowsVersion = snapshot.getVersion();
+        refresh();
+    }
+
+    // Tells the table everything may have changed
+    public void refresh() {
+        announcedRowCount = rows.size();
+        fireTableDataChanged();
+    }
+
+    public Date getDateAt(int row) {
+        return rows.get(row);
+    }
+
+    // Turns a burst of changes from the DateManager into row events, for a table showing every date
+    public void applyChanges(List<DateChangeEvent> events) {
+        // Skip changes the rows already include, they were picked up by an earlier refresh
+        int firstUnseen = 0;
+        while (firstUnseen < events.size() && events.get(firstUnseen).getVersion() <= rowsVersion) {
+            firstUnseen++;
+        }
+        events = events.subList(firstUnseen, events.size());
+        if (events.isEmpty()) {
+            return;
+        }
+        DateSnapshot snapshot = dateManager.getSnapshot();
+        rows = snapshot.getAllDates();
+        rowsVersion = snapshot.getVersion();
+        if (events.get(events.size() - 1).getVersion() != snapshot.getVersion()) {
+            // More changes were published since these, their events are still on the way
+            refresh();
+            return;
+        }
+        int rowCountAfter = announcedRowCount;
+        for (DateChangeEvent event : events) {
+            if (event.getKind() == DateChangeEvent.Kind.DAY_CHANGED
+                    || event.getKind() == DateChangeEvent.Kind.BULK_CHANGE) {
+                refresh(); // too much changed to go row by row
+                return;
+            } else if (event.getKind() == DateChangeEvent.Kind.ADDED) {
+                rowCountAfter++;
+            } else if (event.getKind() == DateChangeEvent.Kind.REMOVED) {
+                rowCountAfter--;
+            }
+        }
+        if (rowCountAfter != rows.size() || events.size() > MAX_ROW_EVENTS) {
+            // Positions do not line up with what the table knows, or a full repaint is cheaper
+            refresh();
+            return;
+        }
+        announcedRowCount = rowCountAfter;
+        for (DateChangeEvent event : events) {
+            int oldRow = event.getOldPosition();
+            int newRow = event.getNewPosition();
+            switch (event.getKind()) {
+                case ADDED:
+                    fireTableRowsInserted(newRow, newRow);
+                    break;
+                case REMOVED:
+                    fireTableRowsDeleted(oldRow, oldRow);
+                    break;
+                case UPDATED:
+                    fireTableRowsUpdated(newRow, newRow);
+                    break;
+                case MOVED:
+                    // Rows in between shift by one, so repaint the span the date moved across
+                    fireTableRowsUpdated(Math.min(oldRow, newRow), Math.max(oldRow, newRow));
+                    break;
+                default:
+                    break; // new types do not change any row
+            }
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        if (columnIndex == STICKIED_COLUMN) {
+            return Boolean.class; // The 'Stickied' column will contain Boolean values
+        }
+        return Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make all cells non-editable
+    }
+
+    // Values are worked out only for the cells the table actually paints
+    @Override
+    public Object getValueAt(int row, int column) {
+        Date date = rows.get(row);
+        switch (column) {
+            case NAME_COLUMN:
+                return date.getName() != null ? date.getName() : "Unnamed";
+            case DATE_COLUMN:
+                return date.getDay().getMonthValue() + "/" + date.getDay().getDayOfMonth();
+            case DAYS_COLUMN:
+                return dayRollover.daysUntil(date);
+            case STICKIED_COLUMN:
+                return date.isStickied();
+            default:
+                return null;
+        }
+    }
+}
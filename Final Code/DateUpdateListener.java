@@ -1,3 +0,0 @@
-public interface DateUpdateListener {
-    void onDateUpdated();
-}
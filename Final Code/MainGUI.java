@@ -1,200 +1,412 @@
-//The MainGUI of the system that the user sees when starting the application. Contains the main method.
-
-import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.DefaultTableCellRenderer;
-import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.time.LocalDate;
-import java.awt.event.WindowAdapter;
-import java.awt.event.WindowEvent;
-
-public class MainGUI implements DateUpdateListener {
-    private DateManager dateManager;
-    private JFrame frame;
-    private JScrollPane scrollPane;
-    private JLabel titleLabel;
-    private JTable dateTable;
-    private JButton addButton;
-    private JButton viewByTypeButton;
-    private JButton calculateDaysButton;
-    private DefaultTableModel tableModel;
-    private List<Date> currentlyDisplayedDates;
-    private String currentFilterType = "All";
-
-    public MainGUI() {
-        dateManager = new DateManager();
-        currentlyDisplayedDates = new ArrayList<>();
-        initializeUI();
-    }
-
-    // Initialize the UI
-    private void initializeUI() {
-        frame = new JFrame("Date Tracker Application");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(600, 400);
-
-        // Table setup
-        String[] columnNames = { "Name", "Date", "Days From Today", "Stickied" }; // Add "Stickied" column
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex == 3) {
-                    return Boolean.class; // The 'Stickied' column will contain Boolean values
-                }
-                return super.getColumnClass(columnIndex);
-            }
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make all cells non-editable
-            }
-        };
-        dateTable = new JTable(tableModel);
-        dateTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-
-        // Set the custom renderer for the table to highlight stickied dates
-        dateTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
-                    boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                Boolean isStickied = (Boolean) table.getModel().getValueAt(row, 3); // Get the stickied status
-                if (isStickied != null && isStickied) {
-                    c.setBackground(new Color(255, 230, 170));
-                } else {
-                    c.setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
-                }
-                return c;
-            }
-        });
-
-        // Hide the 'Stickied' column from view
-        dateTable.removeColumn(dateTable.getColumnModel().getColumn(3));
-
-        scrollPane = new JScrollPane(dateTable);
-        frame.add(scrollPane, BorderLayout.CENTER);
-
-        titleLabel = new JLabel("Your Dates", SwingConstants.CENTER);
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
-        frame.add(titleLabel, BorderLayout.NORTH);
-
-        // Add buttons
-        addButton = new JButton("Add Date");
-        addButton.addActionListener(e -> {
-            AddDateGUI addDateGUI = new AddDateGUI(frame, dateManager, MainGUI.this);
-            addDateGUI.setVisible(true);
-        });
-
-        viewByTypeButton = new JButton("View by Type");
-        viewByTypeButton.addActionListener(e -> {
-            ViewByTypeGUI viewByTypeGUI = new ViewByTypeGUI(frame, dateManager.getCustomTypes(), MainGUI.this);
-            viewByTypeGUI.setVisible(true);
-        });
-
-        calculateDaysButton = new JButton("Calculate Days");
-        calculateDaysButton.addActionListener(e -> {
-            CalculateDaysGUI calculateDaysGUI = new CalculateDaysGUI(frame);
-            calculateDaysGUI.setVisible(true);
-        });
-
-        JPanel bottomPanel = new JPanel();
-        bottomPanel.add(viewByTypeButton);
-        bottomPanel.add(addButton);
-        bottomPanel.add(calculateDaysButton);
-        frame.add(bottomPanel, BorderLayout.SOUTH);
-
-        frame.addWindowListener(new WindowAdapter() {
-            @Override
-            public void windowClosing(WindowEvent e) {
-                dateManager.saveDates(); // Save dates to file
-            }
-        });
-
-        // Add mouse listener for row selection
-        dateTable.addMouseListener(new MouseAdapter() {
-            public void mouseClicked(MouseEvent e) {
-                if (e.getClickCount() == 1) {
-                    int viewRowIndex = dateTable.getSelectedRow();
-                    if (viewRowIndex >= 0) {
-                        // Use the currently displayed list to get the correct Date object
-                        Date selectedDate = currentlyDisplayedDates.get(viewRowIndex);
-                        if (selectedDate != null) {
-                            DateGUI dateGUI = new DateGUI(frame, dateManager, selectedDate, MainGUI.this);
-                            dateGUI.setVisible(true);
-                        }
-                    }
-                }
-            }
-        });
-
-        updateDateTable(currentlyDisplayedDates);
-        filterDatesByType(currentFilterType);
-        frame.setVisible(true);
-    }
-
-    // Update the JTable model to reflect the new order
-    public void onDateUpdated() {
-        filterDatesByType(currentFilterType);
-    }
-
-    // Displays dates on the date table
-    public void displayDates(List<Date> dates) {
-        updateDateTable(dates);
-    }
-
-    // Updates the table if there are any changes
-    private void updateDateTable(List<Date> dates) {
-        currentlyDisplayedDates.clear();
-        currentlyDisplayedDates.addAll(dates);
-        tableModel.setRowCount(0);
-        for (Date date : dates) {
-            addDateToTable(date, date.isStickied());
-        }
-    }
-
-    // Inserts a date to the table in its correct order
-    private void addDateToTable(Date date, boolean isStickied) {
-        LocalDate today = LocalDate.now();
-        LocalDate nextOccurrence = date.getDay().atYear(today.getYear());
-        if (nextOccurrence.isBefore(today)) {
-            nextOccurrence = nextOccurrence.plusYears(1);
-        }
-        long daysFromToday = ChronoUnit.DAYS.between(today, nextOccurrence);
-        String displayName = date.getName() != null ? date.getName() : "Unnamed";
-        String displayDate = date.getDay().getMonthValue() + "/" + date.getDay().getDayOfMonth();
-
-        // Add a row to the table model with the date information
-        tableModel.addRow(new Object[] { displayName, displayDate, daysFromToday, isStickied });
-    }
-
-    // Filters table so it shows only the selected type
-    public void filterDatesByType(String type) {
-        currentFilterType = type;
-        List<Date> filteredDates;
-        if ("All".equals(type)) {
-            filteredDates = dateManager.getAllDates();
-        } else {
-            filteredDates = dateManager.getAllDates().stream()
-                    .filter(date -> type.equals(date.getType()))
-                    .collect(Collectors.toList());
-        }
-        updateDateTable(filteredDates);
-    }
-
-    // main method that runs the application
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                new MainGUI().frame.setVisible(true);
-            }
-        });
-    }
-}
+//The MainGUI of the system that the user sees when starting the application. Contains the main method.
+
+import core.BusinessCalendar;
+import core.Date;
+import core.DateChangeEvent;
+import core.DateExporter;
+import core.DateImporter;
+import core.DateManager;
+import core.DateTrackerMetrics;
+import core.DateUpdateListener;
+import core.DayRolloverService;
+import core.LeadTimes;
+import core.Reminder;
+import core.ReminderScheduler;
+import core.StartupMetrics;
+import core.TagQuery;
+import core.WriteBehindPersister;
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+public class MainGUI implements DateUpdateListener {
+    private DateManager dateManager;
+    private ReminderScheduler reminderScheduler;
+    private BusinessCalendar businessCalendar; // follows the holidays for the business days calculator
+    private TrayIcon trayIcon; // shows reminders when the desktop has a system tray
+    private JFrame frame;
+    private JScrollPane scrollPane;
+    private JLabel titleLabel;
+    private JTable dateTable;
+    private JButton addButton;
+    private JButton viewByTypeButton;
+    private JButton calculateDaysButton;
+    private JButton importButton;
+    private JButton exportButton;
+    private JComboBox<String> upcomingComboBox;
+    private DateTableModel tableModel;
+    private String currentFilterType = "All";
+    private TagQuery currentTagQuery; // null unless the dates are filtered by a tag query
+    private int currentUpcomingDays = 0; // 0 shows dates on any day
+
+    // Choices for the upcoming filter and the number of days each one covers
+    private static final String[] UPCOMING_CHOICES = { "All Dates", "Next 7 Days", "Next 30 Days", "Next 90 Days" };
+    private static final int[] UPCOMING_DAYS = { 0, 7, 30, 90 };
+
+    // Type given to imported dates that do not name one
+    private static final String IMPORT_DEFAULT_TYPE = "imported";
+
+    public MainGUI() {
+        initializeUI();
+        loadDates();
+    }
+
+    // Loads the dates on a background thread so the window shows right away, rows appear as they are decoded
+    private void loadDates() {
+        new SwingWorker<DateManager, List<Date>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected DateManager doInBackground() {
+                return new DateManager(true, WriteBehindPersister.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                        Clock.systemDefaultZone(), chunk -> publish(chunk));
+            }
+
+            @Override
+            protected void process(List<List<Date>> chunks) {
+                for (List<Date> chunk : chunks) {
+                    tableModel.appendRows(chunk);
+                }
+                if (tableModel.getRowCount() > 0) {
+                    StartupMetrics.firstRowShown();
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    dateManager = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    String reason = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                    System.err.println("Error loading dates: " + reason);
+                    titleLabel.setText("Could not load your dates");
+                    JOptionPane.showMessageDialog(frame, reason, "Could not load your dates", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                StartupMetrics.loadFinished(dateManager.getAllDates().size());
+                DateTrackerMetrics.logStartup();
+                tableModel.setDateManager(dateManager);
+                dateManager.addDateUpdateListener(MainGUI.this, SwingUtilities::invokeLater);
+                refreshFilter(); // the loaded order replaces the preview
+                titleLabel.setText("Your Dates");
+                setControlsEnabled(true);
+                startReminders();
+                businessCalendar = new BusinessCalendar(dateManager);
+            }
+        }.execute();
+    }
+
+    // The buttons need the DateManager, so they stay disabled until it has loaded
+    private void setControlsEnabled(boolean enabled) {
+        addButton.setEnabled(enabled);
+        viewByTypeButton.setEnabled(enabled);
+        importButton.setEnabled(enabled);
+        exportButton.setEnabled(enabled);
+        upcomingComboBox.setEnabled(enabled);
+    }
+
+    // Initialize the UI
+    private void initializeUI() {
+        frame = new JFrame("Date Tracker Application");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setSize(600, 400);
+
+        // Table setup, rows are added while loading and then follow the DateManager's snapshots
+        tableModel = new DateTableModel(new DayRolloverService(Clock.systemDefaultZone()));
+        dateTable = new JTable(tableModel);
+        dateTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        // Set the custom renderer for the table to highlight stickied dates
+        dateTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                    boolean hasFocus, int row, int column) {
+                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+
+                Boolean isStickied = (Boolean) table.getModel().getValueAt(row, DateTableModel.STICKIED_COLUMN);
+                if (isStickied != null && isStickied) {
+                    c.setBackground(new Color(255, 230, 170));
+                } else {
+                    c.setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
+                }
+                return c;
+            }
+        });
+
+        // Hide the 'Stickied' column from view
+        dateTable.removeColumn(dateTable.getColumnModel().getColumn(DateTableModel.STICKIED_COLUMN));
+
+        scrollPane = new JScrollPane(dateTable);
+        frame.add(scrollPane, BorderLayout.CENTER);
+
+        titleLabel = new JLabel("Loading Your Dates...", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        frame.add(titleLabel, BorderLayout.NORTH);
+
+        // Add buttons
+        addButton = new JButton("Add Date");
+        addButton.addActionListener(e -> {
+            AddDateGUI addDateGUI = new AddDateGUI(frame, dateManager);
+            addDateGUI.setVisible(true);
+        });
+
+        viewByTypeButton = new JButton("View by Type");
+        viewByTypeButton.addActionListener(e -> {
+            ViewByTypeGUI viewByTypeGUI = new ViewByTypeGUI(frame, dateManager.getCustomTypes(), MainGUI.this);
+            viewByTypeGUI.setVisible(true);
+        });
+
+        calculateDaysButton = new JButton("Calculate Days");
+        calculateDaysButton.addActionListener(e -> {
+            CalculateDaysGUI calculateDaysGUI = new CalculateDaysGUI(frame, dateManager, businessCalendar);
+            calculateDaysGUI.setVisible(true);
+        });
+
+        importButton = new JButton("Import");
+        importButton.addActionListener(e -> handleImport());
+
+        exportButton = new JButton("Export");
+        exportButton.addActionListener(e -> handleExport());
+
+        upcomingComboBox = new JComboBox<>(UPCOMING_CHOICES);
+        upcomingComboBox.addActionListener(e -> {
+            filterDatesByUpcoming(UPCOMING_DAYS[upcomingComboBox.getSelectedIndex()]);
+        });
+
+        JPanel bottomPanel = new JPanel();
+        bottomPanel.add(upcomingComboBox);
+        bottomPanel.add(viewByTypeButton);
+        bottomPanel.add(addButton);
+        bottomPanel.add(calculateDaysButton);
+        bottomPanel.add(importButton);
+        bottomPanel.add(exportButton);
+        frame.add(bottomPanel, BorderLayout.SOUTH);
+
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (dateManager != null) {
+                    dateManager.flush(); // Write any pending changes to file
+                }
+                if (reminderScheduler != null) {
+                    reminderScheduler.stop();
+                }
+            }
+        });
+
+        // Add mouse listener for row selection
+        dateTable.addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 1 && dateManager != null) {
+                    int viewRowIndex = dateTable.getSelectedRow();
+                    if (viewRowIndex >= 0) {
+                        // Use the table model to get the correct Date object
+                        Date selectedDate = tableModel.getDateAt(viewRowIndex);
+                        if (selectedDate != null) {
+                            // The table follows the DateManager's change events, so no extra listener is needed
+                            DateGUI dateGUI = new DateGUI(frame, dateManager, selectedDate, null);
+                            dateGUI.setVisible(true);
+                        }
+                    }
+                }
+            }
+        });
+
+        setControlsEnabled(false);
+        frame.setVisible(true);
+    }
+
+    // Imports a CSV or iCalendar file in the background and reports how it went
+    private void handleImport() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        importButton.setEnabled(false);
+        new SwingWorker<DateImporter.Result, Void>() {
+            @Override
+            protected DateImporter.Result doInBackground() throws Exception {
+                return new DateImporter(dateManager, IMPORT_DEFAULT_TYPE).importFile(file);
+            }
+
+            @Override
+            protected void done() {
+                importButton.setEnabled(true);
+                try {
+                    DateImporter.Result result = get();
+                    StringBuilder message = new StringBuilder(result.toString());
+                    for (String rejected : result.getRejectedDetails().subList(0,
+                            Math.min(10, result.getRejectedDetails().size()))) {
+                        message.append('\n').append(rejected);
+                    }
+                    JOptionPane.showMessageDialog(frame, message.toString(), "Import", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(frame, "Error importing " + file.getFileName() + ": " + e.getMessage(),
+                            "Import", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    // Exports all dates to a CSV or iCalendar file in the background, the format is picked by the extension
+    private void handleExport() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("dates.csv"));
+        if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        exportButton.setEnabled(false);
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return new DateExporter(dateManager).exportFile(file);
+            }
+
+            @Override
+            protected void done() {
+                exportButton.setEnabled(true);
+                try {
+                    JOptionPane.showMessageDialog(frame, "Exported " + get() + " dates to " + file.getFileName(),
+                            "Export", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    String reason = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                    JOptionPane.showMessageDialog(frame, "Error exporting: " + reason, "Export",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    // Reminders go off ahead of each date, as set in the datetracker.reminders property (7 and 1 days by default)
+    private void startReminders() {
+        LeadTimes leadTimes;
+        try {
+            leadTimes = LeadTimes.fromSystemProperty();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring " + LeadTimes.PROPERTY + ": " + e.getMessage());
+            leadTimes = LeadTimes.parse(LeadTimes.DEFAULT_SPEC);
+        }
+        reminderScheduler = new ReminderScheduler(dateManager, leadTimes);
+        reminderScheduler.addReminderListener(reminder -> SwingUtilities.invokeLater(() -> showReminder(reminder)));
+        reminderScheduler.start();
+    }
+
+    // Shows the reminder as a desktop notification, or in a dialog if there is no system tray
+    private void showReminder(Reminder reminder) {
+        if (SystemTray.isSupported()) {
+            try {
+                if (trayIcon == null) {
+                    trayIcon = new TrayIcon(createTrayImage(), "Date Tracker");
+                    trayIcon.setImageAutoSize(true);
+                    trayIcon.addActionListener(e -> frame.toFront());
+                    SystemTray.getSystemTray().add(trayIcon);
+                }
+                trayIcon.displayMessage("Date Tracker", reminder.toString(), TrayIcon.MessageType.INFO);
+                return;
+            } catch (AWTException e) {
+                System.err.println("Error showing reminder in the system tray: " + e.getMessage());
+            }
+        }
+        JOptionPane.showMessageDialog(frame, reminder.toString(), "Reminder", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // A plain square in the stickied color, the application has no icon of its own
+    private static Image createTrayImage() {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(255, 180, 60));
+        graphics.fillRect(1, 1, 14, 14);
+        graphics.dispose();
+        return image;
+    }
+
+    // Update the JTable model to reflect the new order
+    public void onDateUpdated() {
+        refreshFilter();
+    }
+
+    // Applies a burst of changes from the DateManager, called once per EDT cycle
+    @Override
+    public void onDatesChanged(List<DateChangeEvent> events) {
+        if (currentUpcomingDays > 0 || !"All".equals(currentFilterType) || currentTagQuery != null) {
+            // Positions refer to the full list, filtered lists are queried again
+            onDateUpdated();
+        } else {
+            tableModel.applyChanges(events);
+        }
+    }
+
+    // Displays dates on the date table
+    public void displayDates(List<Date> dates) {
+        updateDateTable(dates);
+    }
+
+    // Updates the table if there are any changes
+    private void updateDateTable(List<Date> dates) {
+        tableModel.setRows(dates);
+    }
+
+    // Filters table so it shows only the selected type
+    public void filterDatesByType(String type) {
+        currentFilterType = type;
+        currentTagQuery = null;
+        List<Date> filteredDates;
+        boolean allTypes = "All".equals(type);
+        if (currentUpcomingDays > 0) {
+            filteredDates = allTypes ? dateManager.getUpcoming(currentUpcomingDays)
+                    : dateManager.getUpcoming(currentUpcomingDays, type);
+        } else if (allTypes) {
+            tableModel.showAllDates(); // follows the DateManager's snapshots from here on
+            return;
+        } else {
+            filteredDates = dateManager.getDatesOfType(type);
+        }
+        updateDateTable(filteredDates);
+    }
+
+    // Filters table so it shows only dates whose tags answer the query
+    public void filterDatesByTags(TagQuery query) {
+        currentTagQuery = query;
+        currentFilterType = "All";
+        updateDateTable(currentUpcomingDays > 0 ? dateManager.getUpcoming(currentUpcomingDays, query)
+                : dateManager.getDatesMatching(query));
+    }
+
+    // Filters table so it shows only dates within the given number of days, 0 shows all dates
+    public void filterDatesByUpcoming(int days) {
+        currentUpcomingDays = days;
+        refreshFilter();
+    }
+
+    // Shows the dates again with the current type or tag filter
+    private void refreshFilter() {
+        if (currentTagQuery != null) {
+            filterDatesByTags(currentTagQuery);
+        } else {
+            filterDatesByType(currentFilterType);
+        }
+    }
+
+    // main method that runs the application
+    public static void main(String[] args) {
+        StartupMetrics.start();
+        DateTrackerMetrics.register();
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                new MainGUI().frame.setVisible(true);
+            }
+        });
+    }
+}
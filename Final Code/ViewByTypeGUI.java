@@ -1,44 +1,107 @@
-//GUI responsible for displaying all current types, allows users to select a type to display only dates of that type.
-
-import javax.swing.*;
-import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.Set;
-
-public class ViewByTypeGUI extends JDialog {
-    private Set<String> types;
-    private MainGUI mainGUI;
-    private JButton selectTypeButton;
-
-    public ViewByTypeGUI(Frame owner, Set<String> types, MainGUI mainGUI) {
-        super(owner, "View By Type", true);
-        this.types = types;
-        this.mainGUI = mainGUI;
-        initializeUI();
-    }
-
-    // Initializes the UI
-    private void initializeUI() {
-        setSize(150, 100);
-        setLayout(new BorderLayout());
-
-        JComboBox<String> typeComboBox = new JComboBox<>();
-        typeComboBox.addItem("All");
-        types.forEach(typeComboBox::addItem);
-
-        selectTypeButton = new JButton("Select Type");
-        selectTypeButton.addActionListener(new ActionListener() {
-            public void actionPerformed(ActionEvent e) {
-                String selectedType = (String) typeComboBox.getSelectedItem();
-                mainGUI.filterDatesByType(selectedType);
-                dispose();
-            }
-        });
-
-        add(typeComboBox, BorderLayout.CENTER);
-        add(selectTypeButton, BorderLayout.SOUTH);
-
-        setLocationRelativeTo(getOwner());
-    }
-}
+//GUI responsible for displaying all current types, allows users to select a type to display only dates of that type.
+//Several tags can also be combined, for example all dates tagged holiday but not work.
+
+import core.TagQuery;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ViewByTypeGUI extends JDialog {
+    private Set<String> types;
+    private MainGUI mainGUI;
+    private JButton selectTypeButton;
+    private JButton showTagsButton;
+    private JList<String> includeList;
+    private JList<String> excludeList;
+    private JRadioButton anyOfButton;
+
+    public ViewByTypeGUI(Frame owner, Set<String> types, MainGUI mainGUI) {
+        super(owner, "View By Type", true);
+        this.types = types;
+        this.mainGUI = mainGUI;
+        initializeUI();
+    }
+
+    // Initializes the UI
+    private void initializeUI() {
+        setSize(360, 320);
+        setLayout(new BorderLayout());
+
+        JComboBox<String> typeComboBox = new JComboBox<>();
+        typeComboBox.addItem("All");
+        types.forEach(typeComboBox::addItem);
+
+        selectTypeButton = new JButton("Select Type");
+        selectTypeButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                String selectedType = (String) typeComboBox.getSelectedItem();
+                mainGUI.filterDatesByType(selectedType);
+                dispose();
+            }
+        });
+
+        JPanel typePanel = new JPanel(new BorderLayout());
+        typePanel.add(typeComboBox, BorderLayout.CENTER);
+        typePanel.add(selectTypeButton, BorderLayout.EAST);
+        add(typePanel, BorderLayout.NORTH);
+        add(createTagPanel(), BorderLayout.CENTER);
+
+        setLocationRelativeTo(getOwner());
+    }
+
+    // Two lists where several tags can be picked: the tags to show and the tags to leave out
+    private JPanel createTagPanel() {
+        String[] sortedTypes = new TreeSet<>(types).toArray(new String[0]);
+        includeList = new JList<>(sortedTypes);
+        excludeList = new JList<>(sortedTypes);
+        includeList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        excludeList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+
+        anyOfButton = new JRadioButton("Any of", true);
+        JRadioButton allOfButton = new JRadioButton("All of");
+        ButtonGroup matchGroup = new ButtonGroup();
+        matchGroup.add(anyOfButton);
+        matchGroup.add(allOfButton);
+        JPanel matchPanel = new JPanel();
+        matchPanel.add(anyOfButton);
+        matchPanel.add(allOfButton);
+
+        JPanel includePanel = new JPanel(new BorderLayout());
+        includePanel.add(matchPanel, BorderLayout.NORTH);
+        includePanel.add(new JScrollPane(includeList), BorderLayout.CENTER);
+        JPanel excludePanel = new JPanel(new BorderLayout());
+        excludePanel.add(new JLabel("But not", SwingConstants.CENTER), BorderLayout.NORTH);
+        excludePanel.add(new JScrollPane(excludeList), BorderLayout.CENTER);
+
+        JPanel listsPanel = new JPanel(new GridLayout(1, 2, 5, 5));
+        listsPanel.add(includePanel);
+        listsPanel.add(excludePanel);
+
+        showTagsButton = new JButton("Show Tagged Dates");
+        showTagsButton.addActionListener(e -> handleShowTags());
+
+        JPanel tagPanel = new JPanel(new BorderLayout());
+        tagPanel.setBorder(BorderFactory.createTitledBorder("Combine tags (Ctrl-click to pick several)"));
+        tagPanel.add(listsPanel, BorderLayout.CENTER);
+        tagPanel.add(showTagsButton, BorderLayout.SOUTH);
+        return tagPanel;
+    }
+
+    // Builds the query from the picked tags and shows the dates answering it
+    private void handleShowTags() {
+        List<String> included = includeList.getSelectedValuesList();
+        List<String> excluded = excludeList.getSelectedValuesList();
+        if (included.isEmpty() && excluded.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please pick at least one tag.", "No Tags Selected",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        TagQuery query = anyOfButton.isSelected() ? TagQuery.anyOf(included) : TagQuery.allOf(included);
+        mainGUI.filterDatesByTags(query.excluding(excluded));
+        dispose();
+    }
+}
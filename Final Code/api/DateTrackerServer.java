@@ -0,0 +1,429 @@
+//Serves the dates of a DateManager as JSON over HTTP on localhost, for scripts and dashboards
+
+package api;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import core.Date;
+import core.DateManager;
+import core.DateTrackerMetrics;
+import core.DateSnapshot;
+import core.DayOfYearIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class DateTrackerServer {
+    public static final int DEFAULT_PORT = 8765;
+
+    private static final int MAX_REQUEST_BYTES = 64 * 1024;
+
+    private final DateManager dateManager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // JSON of every date for one snapshot version, the list most clients ask for again and again
+    private volatile CachedBody allDatesBody;
+
+    private static class CachedBody {
+        final long version;
+        final byte[] body;
+
+        CachedBody(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+
+    // A request that could not be served, turned into an error response with the status
+    private static class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // Binds to the loopback address only, the API has no authentication
+    public DateTrackerServer(DateManager dateManager, int port) throws IOException {
+        this.dateManager = dateManager;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    // Virtual threads when the JVM has them (Java 21 and later), otherwise a pool of platform threads
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "date-api");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // GET    /dates               every date, ?type= limits it to one type
+    // GET    /dates/upcoming      dates in the next ?days= days (default 7), ?type= limits it to one type
+    // GET    /dates/{id}          a single date
+    // GET    /types               every custom type
+    // POST   /dates               adds a date from {name, month, day, type, stickied}
+    // PUT    /dates/{id}          changes a date, fields left out keep their value
+    // DELETE /dates/{id}          removes a date
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (path.length == 1 && path[0].equals("types") && method.equals("GET")) {
+                getTypes(exchange);
+            } else if (path.length == 1 && path[0].equals("dates")) {
+                if (method.equals("GET")) {
+                    getDates(exchange, query.get("type"));
+                } else if (method.equals("POST")) {
+                    addDate(exchange);
+                } else {
+                    throw new RequestException(405, "Use GET or POST on /dates");
+                }
+            } else if (path.length == 2 && path[0].equals("dates") && path[1].equals("upcoming")
+                    && method.equals("GET")) {
+                getUpcoming(exchange, parseInt(query.getOrDefault("days", "7"), "days"), query.get("type"));
+            } else if (path.length == 2 && path[0].equals("dates")) {
+                long id = parseId(path[1]);
+                if (method.equals("GET")) {
+                    getDate(exchange, id);
+                } else if (method.equals("PUT")) {
+                    updateDate(exchange, id);
+                } else if (method.equals("DELETE")) {
+                    deleteDate(exchange, id);
+                } else {
+                    throw new RequestException(405, "Use GET, PUT or DELETE on /dates/{id}");
+                }
+            } else {
+                throw new RequestException(404, "No such endpoint");
+            }
+        } catch (RequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error serving " + exchange.getRequestURI() + ": " + e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void getDates(HttpExchange exchange, String type) throws IOException {
+        // The version is read before the data, so the ETag is never newer than what is sent
+        DateSnapshot snapshot = dateManager.getSnapshot();
+        if (notModified(exchange, snapshot.getVersion())) {
+            return;
+        }
+        if (type != null) {
+            sendDates(exchange, snapshot.getVersion(), dateManager.getDatesOfType(type));
+            return;
+        }
+        CachedBody cached = allDatesBody;
+        if (cached == null || cached.version != snapshot.getVersion()) {
+            cached = new CachedBody(snapshot.getVersion(), datesJson(snapshot.getAllDates()));
+            allDatesBody = cached;
+        }
+        send(exchange, 200, snapshot.getVersion(), cached.body);
+    }
+
+    private void getUpcoming(HttpExchange exchange, int days, String type) throws IOException {
+        long version = dateManager.getSnapshot().getVersion();
+        if (notModified(exchange, version)) {
+            return;
+        }
+        List<Date> dates = type == null ? dateManager.getUpcoming(days) : dateManager.getUpcoming(days, type);
+        sendDates(exchange, version, dates);
+    }
+
+    private void getDate(HttpExchange exchange, long id) throws IOException {
+        DateSnapshot snapshot = dateManager.getSnapshot();
+        Date date = snapshot.getDateById(id);
+        if (date == null) {
+            throw new RequestException(404, "No date with id " + id);
+        }
+        if (notModified(exchange, snapshot.getVersion())) {
+            return;
+        }
+        send(exchange, 200, snapshot.getVersion(), dateJson(date));
+    }
+
+    private void getTypes(HttpExchange exchange) throws IOException {
+        DateSnapshot snapshot = dateManager.getSnapshot();
+        if (notModified(exchange, snapshot.getVersion())) {
+            return;
+        }
+        StringBuilder json = new StringBuilder();
+        Json.writeStrings(json, snapshot.getCustomTypes());
+        send(exchange, 200, snapshot.getVersion(), json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void addDate(HttpExchange exchange) throws IOException {
+        Map<String, Object> fields = readBody(exchange);
+        Date date = new Date(stringField(fields, "name", null), intField(fields, "month", null),
+                intField(fields, "day", null), requiredType(stringField(fields, "type", null)),
+                booleanField(fields, "stickied", false));
+        dateManager.addOrUpdateDate(date);
+        exchange.getResponseHeaders().set("Location", "/dates/" + date.getId());
+        send(exchange, 201, dateManager.getSnapshot().getVersion(), dateJson(date));
+    }
+
+    // An If-Match header makes the update fail if anything changed since the client's copy was sent
+    private void updateDate(HttpExchange exchange, long id) throws IOException {
+        Map<String, Object> fields = readBody(exchange);
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        boolean conditional = ifMatch != null && !ifMatch.equals("*");
+        DateManager.UpdateResult result;
+        do {
+            // Fields left out keep their value in this snapshot, so the update only goes through if it is still
+            // the latest. Without If-Match a change in between just means reading the new snapshot.
+            DateSnapshot snapshot = dateManager.getSnapshot();
+            Date current = snapshot.getDateById(id);
+            if (current == null) {
+                throw new RequestException(404, "No date with id " + id);
+            }
+            if (conditional && !ifMatch.equals(etag(snapshot.getVersion()))) {
+                throw new RequestException(412, "The dates changed since " + ifMatch);
+            }
+            int month = intField(fields, "month", current.getDay().getMonthValue());
+            int day = intField(fields, "day", current.getDay().getDayOfMonth());
+            if (!DayOfYearIndex.isValidDay(month, day)) {
+                throw new RequestException(400, "No such day " + month + "/" + day);
+            }
+            result = dateManager.updateDateIfVersion(snapshot.getVersion(), id,
+                    stringField(fields, "name", current.getName()), month, day,
+                    requiredType(stringField(fields, "type", current.getType())),
+                    booleanField(fields, "stickied", current.isStickied()));
+        } while (result == DateManager.UpdateResult.VERSION_CHANGED && !conditional);
+        if (result == DateManager.UpdateResult.NO_SUCH_DATE) {
+            throw new RequestException(404, "No date with id " + id);
+        }
+        if (result == DateManager.UpdateResult.VERSION_CHANGED) {
+            throw new RequestException(412, "The dates changed since " + ifMatch);
+        }
+        DateSnapshot snapshot = dateManager.getSnapshot();
+        send(exchange, 200, snapshot.getVersion(), dateJson(snapshot.getDateById(id)));
+    }
+
+    private void deleteDate(HttpExchange exchange, long id) throws IOException {
+        if (!dateManager.removeDateById(id)) {
+            throw new RequestException(404, "No date with id " + id);
+        }
+        exchange.getResponseHeaders().set("ETag", etag(dateManager.getSnapshot().getVersion()));
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Answers 304 if the client already has this version
+    private boolean notModified(HttpExchange exchange, long version) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = etag(version);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendDates(HttpExchange exchange, long version, List<Date> dates) throws IOException {
+        send(exchange, 200, version, datesJson(dates));
+    }
+
+    private byte[] datesJson(List<Date> dates) {
+        StringBuilder json = new StringBuilder(dates.size() * 96 + 2);
+        json.append('[');
+        for (int i = 0; i < dates.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            Json.writeDate(json, dates.get(i), dateManager.daysUntil(dates.get(i)));
+        }
+        json.append(']');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] dateJson(Date date) {
+        StringBuilder json = new StringBuilder(128);
+        Json.writeDate(json, date, dateManager.daysUntil(date));
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, long version, byte[] body) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        headers.set("ETag", etag(version));
+        headers.set("Cache-Control", "no-cache"); // clients may keep it but must check the ETag first
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.writeString(json, message);
+        json.append('}');
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_REQUEST_BYTES + 1);
+            if (body.length > MAX_REQUEST_BYTES) {
+                throw new RequestException(413, "Request body too large");
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static long parseId(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new RequestException(404, "No date with id " + text);
+        }
+    }
+
+    private static int parseInt(String text, String name) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, name + " must be a whole number");
+        }
+    }
+
+    private static String requiredType(String type) {
+        if (type == null || type.isBlank()) {
+            throw new RequestException(400, "type is required");
+        }
+        return type;
+    }
+
+    private static String stringField(Map<String, Object> fields, String name, String fallback) {
+        if (!fields.containsKey(name)) {
+            return fallback;
+        }
+        Object value = fields.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new RequestException(400, name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static int intField(Map<String, Object> fields, String name, Integer fallback) {
+        Object value = fields.get(name);
+        if (value == null) {
+            if (fallback == null) {
+                throw new RequestException(400, name + " is required");
+            }
+            return fallback;
+        }
+        if (!(value instanceof Double) || (Double) value != Math.rint((Double) value)) {
+            throw new RequestException(400, name + " must be a whole number");
+        }
+        return ((Double) value).intValue();
+    }
+
+    private static boolean booleanField(Map<String, Object> fields, String name, boolean fallback) {
+        Object value = fields.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        if (!(value instanceof Boolean)) {
+            throw new RequestException(400, name + " must be true or false");
+        }
+        return (Boolean) value;
+    }
+
+    // Starts the API on its own, without any window: java api.DateTrackerServer [port]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        // Small JSON responses should not wait for more data to fill a packet
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        DateManager dateManager;
+        try {
+            dateManager = new DateManager();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        DateTrackerMetrics.register();
+        DateTrackerServer server = new DateTrackerServer(dateManager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            dateManager.close();
+        }, "date-api-shutdown"));
+        server.start();
+        System.out.println("Date Tracker API listening on http://localhost:" + server.getPort() + "/dates");
+    }
+}
@@ -0,0 +1,325 @@
+//Command line entry point for scripts and shell prompts, answers without loading any Swing class
+
+package cli;
+
+import core.BusinessCalendar;
+import core.ColumnarDateStore;
+import core.Date;
+import core.DateManager;
+import core.DayCalculator;
+import core.DayOfYearIndex;
+import core.DayRolloverService;
+import core.FileDatabaseHelper;
+import core.LeadTimes;
+import core.MappedDateStore;
+import core.Reminder;
+import core.ReminderQueue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+public class DateTrackerCli {
+    private static final String USAGE = String.join("\n",
+            "Usage: datetracker <command>",
+            "  list [type]                       every date, stickied first, then by next occurrence",
+            "  next <days> [type]                dates in the next number of days",
+            "  add <name> <mm/dd> <type> [--stickied]",
+            "  remove <id>",
+            "  days-between <yyyy/MM/dd> <yyyy/MM/dd>",
+            "  days-between-file <input|-> [output|-]   one line of days between for each line of two days",
+            "  business-days <yyyy/MM/dd> <yyyy/MM/dd>  days between leaving out weekends and holiday dates",
+            "  archive                           write every date to the read-only archive file",
+            "  archive-next <days> [type]        dates in the next number of days, read from the archive",
+            "  reminders [days] [lead times]     reminders going off today or in the next number of days,",
+            "                                    lead times like \"7,1;birthday=14,7,1\" (default 7,1)");
+
+    private final PrintStream out;
+
+    public DateTrackerCli(PrintStream out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new DateTrackerCli(System.out).run(args));
+    }
+
+    // Runs one command, returns the exit code: 0 on success, 1 if nothing matched, 2 for bad arguments
+    public int run(String[] args) {
+        if (args.length == 0) {
+            return usage();
+        }
+        try {
+            switch (args[0]) {
+                case "list":
+                    return args.length <= 2 ? list(Integer.MAX_VALUE, args.length == 2 ? args[1] : null) : usage();
+                case "next":
+                    if (args.length < 2 || args.length > 3) {
+                        return usage();
+                    }
+                    return list(Integer.parseInt(args[1]), args.length == 3 ? args[2] : null);
+                case "add":
+                    return args.length == 4 || args.length == 5 && args[4].equals("--stickied") ? add(args) : usage();
+                case "remove":
+                    return args.length == 2 ? remove(Long.parseLong(args[1])) : usage();
+                case "archive":
+                    return args.length == 1 ? archive() : usage();
+                case "archive-next":
+                    if (args.length < 2 || args.length > 3) {
+                        return usage();
+                    }
+                    return archiveNext(Integer.parseInt(args[1]), args.length == 3 ? args[2] : null);
+                case "reminders":
+                    if (args.length > 3) {
+                        return usage();
+                    }
+                    return reminders(args.length >= 2 ? Integer.parseInt(args[1]) : 0,
+                            args.length == 3 ? args[2] : System.getProperty(LeadTimes.PROPERTY, LeadTimes.DEFAULT_SPEC));
+                case "days-between":
+                    return args.length == 3 ? daysBetween(args[1], args[2]) : usage();
+                case "business-days":
+                    return args.length == 3 ? businessDays(args[1], args[2]) : usage();
+                case "days-between-file":
+                    return args.length == 2 || args.length == 3
+                            ? daysBetweenFile(args[1], args.length == 3 ? args[2] : "-") : usage();
+                default:
+                    return usage();
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Expected a number: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    private int usage() {
+        System.err.println(USAGE);
+        return 2;
+    }
+
+    // Reads the store directly instead of building a DateManager, so no thread is started and nothing is compacted
+    // or locked. Only what any start does is written: the example dates on a first run and files of older versions
+    // converted once.
+    private int list(int days, String type) {
+        if (days < 0) {
+            System.err.println("The number of days cannot be negative");
+            return 2;
+        }
+        // Columns instead of a Date per entry, so even millions of dates stay small
+        ColumnarDateStore stored = FileDatabaseHelper.readColumnarStore();
+        DayRolloverService day = new DayRolloverService(currentOffsetClock());
+        MonthDay today = day.getTodayMonthDay();
+        List<Date> dates = new ArrayList<>();
+        for (Date date : type == null ? stored.getAllDates(today) : stored.getDatesOfType(type, today)) {
+            if (day.daysUntil(date) <= days) {
+                dates.add(date);
+            }
+        }
+        return print(dates, day);
+    }
+
+    private int archive() {
+        if (!FileDatabaseHelper.writeArchive()) {
+            return 1;
+        }
+        out.println(FileDatabaseHelper.ARCHIVE_FILE);
+        return 0;
+    }
+
+    // Only the days asked for are read from the archive, whatever its size
+    private int archiveNext(int days, String type) {
+        if (days < 0) {
+            System.err.println("The number of days cannot be negative");
+            return 2;
+        }
+        MappedDateStore archive = FileDatabaseHelper.openArchive();
+        if (archive == null) {
+            System.err.println("No archive, write one with: datetracker archive");
+            return 1;
+        }
+        DayRolloverService day = new DayRolloverService(currentOffsetClock());
+        LocalDate today = day.getToday();
+        List<Date> inRange = days >= 365 ? archive.getAllDates()
+                : archive.getBetween(MonthDay.from(today), MonthDay.from(today.plusDays(days)));
+        List<Date> dates = new ArrayList<>();
+        for (Date date : inRange) {
+            if (type == null || type.equalsIgnoreCase(date.getType())) {
+                dates.add(date);
+            }
+        }
+        return print(dates, day);
+    }
+
+    // The same queue the desktop reminders use, polled up to the last day instead of waiting for each reminder
+    private int reminders(int days, String leadTimeSpec) {
+        if (days < 0) {
+            System.err.println("The number of days cannot be negative");
+            return 2;
+        }
+        LeadTimes leadTimes;
+        try {
+            leadTimes = LeadTimes.parse(leadTimeSpec);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Expected lead times like 7,1;birthday=14,7,1: " + e.getMessage());
+            return 2;
+        }
+        ColumnarDateStore stored = FileDatabaseHelper.readColumnarStore();
+        LocalDate today = new DayRolloverService(currentOffsetClock()).getToday();
+        ReminderQueue queue = new ReminderQueue(leadTimes);
+        queue.rebuild(stored.getAllDates(MonthDay.from(today)), today.toEpochDay());
+        StringBuilder lines = new StringBuilder();
+        List<Reminder> reminders = queue.pollDue(today.toEpochDay() + days);
+        for (Reminder reminder : reminders) {
+            // Tab separated: reminder day, then id, day, days until, name and type as for list
+            Date date = reminder.getDate();
+            LocalDate reminderDay = reminder.getReminderDay();
+            lines.append(reminderDay.getMonthValue()).append('/').append(reminderDay.getDayOfMonth()).append('\t')
+                    .append(date.getId()).append('\t')
+                    .append(date.getDay().getMonthValue()).append('/').append(date.getDay().getDayOfMonth()).append('\t')
+                    .append(ChronoUnit.DAYS.between(today, reminder.getOccurrence())).append('\t')
+                    .append(date.getName() != null ? date.getName() : "Unnamed").append('\t')
+                    .append(date.getType()).append('\n');
+        }
+        out.print(lines);
+        out.flush();
+        return reminders.isEmpty() ? 1 : 0;
+    }
+
+    // Sorts and prints the dates, returns 1 if there were none
+    private int print(List<Date> dates, DayRolloverService day) {
+        // The order of the main window: stickied dates first, each part by next occurrence
+        dates.sort((first, second) -> first.isStickied() != second.isStickied() ? (first.isStickied() ? -1 : 1)
+                : Long.compare(day.daysUntil(first), day.daysUntil(second)));
+        StringBuilder lines = new StringBuilder();
+        for (Date date : dates) {
+            // Tab separated so scripts can cut it: id, day, days until, name, type, stickied
+            lines.append(date.getId()).append('\t')
+                    .append(date.getDay().getMonthValue()).append('/').append(date.getDay().getDayOfMonth()).append('\t')
+                    .append(day.daysUntil(date)).append('\t')
+                    .append(date.getName() != null ? date.getName() : "Unnamed").append('\t')
+                    .append(date.getType()).append('\t')
+                    .append(date.isStickied() ? "stickied" : "").append('\n');
+        }
+        out.print(lines);
+        out.flush();
+        return dates.isEmpty() ? 1 : 0;
+    }
+
+    // Today only needs the offset in effect right now. Clock.systemDefaultZone() would load the full time zone
+    // rules, a good part of the start time of a command this short.
+    private static Clock currentOffsetClock() {
+        long now = System.currentTimeMillis();
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(TimeZone.getDefault().getOffset(now) / 1000);
+        return Clock.fixed(Instant.ofEpochMilli(now), offset);
+    }
+
+    private int add(String[] args) {
+        String[] day = args[2].split("/");
+        if (day.length != 2) {
+            System.err.println("Expected the day as mm/dd: " + args[2]);
+            return 2;
+        }
+        int month = Integer.parseInt(day[0]);
+        int dayOfMonth = Integer.parseInt(day[1]);
+        if (!DayOfYearIndex.isValidDay(month, dayOfMonth)) {
+            System.err.println("No such day: " + args[2]);
+            return 2;
+        }
+        DateManager dateManager = open();
+        if (dateManager == null) {
+            return 1;
+        }
+        try {
+            Date date = new Date(args[1], month, dayOfMonth, args[3], args.length == 5);
+            dateManager.addOrUpdateDate(date);
+            out.println(date.getId());
+        } finally {
+            dateManager.close(); // waits until the change is written
+        }
+        return 0;
+    }
+
+    private int remove(long id) {
+        DateManager dateManager = open();
+        if (dateManager == null) {
+            return 1;
+        }
+        try {
+            if (!dateManager.removeDateById(id)) {
+                System.err.println("No date with id " + id);
+                return 1;
+            }
+        } finally {
+            dateManager.close();
+        }
+        return 0;
+    }
+
+    // Opens the store for a change, or returns null if a window or API server already has it open
+    private static DateManager open() {
+        try {
+            return new DateManager();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return null;
+        }
+    }
+
+    // Counts the days between two calendar days, in either order, without reading the store
+    private int daysBetween(String first, String second) {
+        long days = DayCalculator.daysBetween(first, second); // same as the Calculate Days dialog
+        if (days == DayCalculator.INVALID) {
+            System.err.println("Expected days as yyyy/MM/dd: "
+                    + (DayCalculator.parseEpochDay(first) == DayCalculator.INVALID ? first : second));
+            return 2;
+        }
+        out.println(days);
+        return 0;
+    }
+
+    // Like days-between, but only counts Monday to Friday and skips every date tagged holiday, as its type or
+    // an extra tag
+    private int businessDays(String first, String second) {
+        long firstDay = DayCalculator.parseEpochDay(first);
+        long secondDay = DayCalculator.parseEpochDay(second);
+        if (firstDay == DayCalculator.INVALID || secondDay == DayCalculator.INVALID) {
+            System.err.println("Expected days as yyyy/MM/dd: " + (firstDay == DayCalculator.INVALID ? first : second));
+            return 2;
+        }
+        // The calendar keeps only the days of the holidays, so the dates are read whole and dropped right after
+        LocalDate today = new DayRolloverService(currentOffsetClock()).getToday();
+        BusinessCalendar calendar = new BusinessCalendar(FileDatabaseHelper.readAllDates().values(), today.getYear());
+        out.println(calendar.businessDaysBetween(firstDay, secondDay));
+        return 0;
+    }
+
+    // Streams a file of day pairs through the calculator, "-" reads standard input or writes standard output.
+    // The summary goes to standard error so the output lines up with the input.
+    private int daysBetweenFile(String input, String output) {
+        try (Reader in = input.equals("-") ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Path.of(input));
+                Writer file = output.equals("-") ? null : Files.newBufferedWriter(Path.of(output))) {
+            Writer writer = file != null ? file : new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            DayCalculator.Result result = DayCalculator.process(in, writer);
+            System.err.println(result);
+            return result.getInvalid() == 0 ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Error reading " + input + " or writing " + output + ": " + e.getMessage());
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+//Makes changes inside DateManager.batch(), they are only written and announced once the batch completes
+
+package core;
+
+import java.util.List;
+
+public class BatchEditor {
+    private final DateManager dateManager;
+
+    BatchEditor(DateManager dateManager) {
+        this.dateManager = dateManager;
+    }
+
+    public void addOrUpdateDate(Date date) {
+        dateManager.addOrUpdateDate(date);
+    }
+
+    public boolean updateDate(long id, String name, int month, int day, String type, boolean stickied) {
+        return dateManager.updateDate(id, name, month, day, type, stickied);
+    }
+
+    public boolean updateDate(long id, String name, int month, int day, String type, List<String> extraTags,
+            boolean stickied) {
+        return dateManager.updateDate(id, name, month, day, type, extraTags, stickied);
+    }
+
+    public boolean setStickied(long id, boolean stickied) {
+        return dateManager.setStickied(id, stickied);
+    }
+
+    public void removeDate(Date date) {
+        dateManager.removeDate(date);
+    }
+
+    public boolean removeDateById(long id) {
+        return dateManager.removeDateById(id);
+    }
+
+    public void addCustomType(String type) {
+        dateManager.addCustomType(type);
+    }
+
+    // Reads see the changes made so far in the batch
+    public Date getDateById(long id) {
+        return dateManager.findDateById(id);
+    }
+}
@@ -0,0 +1,207 @@
+//Counts working days, skipping weekends and every date tagged holiday, with two array lookups per day
+
+package core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class BusinessCalendar implements DateUpdateListener {
+    public static final String HOLIDAY_TAG = "holiday";
+    // Years worked out up front on each side of the current one, others are added the first time they are asked for
+    private static final int YEARS_AROUND_TODAY = 50;
+
+    private DateManager dateManager; // null when built from a fixed list of dates
+    // Holidays recur every year, so they are kept by day of the year. A day stays a holiday while any date on it is.
+    private final int[] holidaysPerSlot = new int[DayOfYearIndex.DAYS_IN_YEAR];
+    private final Map<Long, Integer> holidaySlotsById = new HashMap<>();
+    // yearPrefixes[i][d] is the number of working days from Jan 1 of year firstYear + i up to, not including,
+    // day d of that year. yearStarts[i] is the number from Jan 1 of firstYear to Jan 1 of that year.
+    private int firstYear;
+    private int[][] yearPrefixes = new int[0][];
+    private int[] yearStarts = new int[1];
+
+    // Follows the DateManager, holidays added, changed or removed later move only the days they are on
+    public BusinessCalendar(DateManager dateManager) {
+        this.dateManager = dateManager;
+        int thisYear = dateManager.getDayRollover().getToday().getYear();
+        // Changes are made holding the DateManager lock, so none can slip in before the calendar is built
+        synchronized (dateManager) {
+            dateManager.addDateUpdateListener(this);
+            synchronized (this) {
+                addHolidays(dateManager.getAllDates());
+                buildYears(thisYear - YEARS_AROUND_TODAY, thisYear + YEARS_AROUND_TODAY);
+            }
+        }
+    }
+
+    // A calendar of the holidays among the dates that never changes, for callers without a DateManager
+    public BusinessCalendar(Collection<Date> dates, int thisYear) {
+        addHolidays(dates);
+        buildYears(thisYear - YEARS_AROUND_TODAY, thisYear + YEARS_AROUND_TODAY);
+    }
+
+    // Stops following the DateManager
+    public void close() {
+        if (dateManager != null) {
+            dateManager.removeDateUpdateListener(this);
+        }
+    }
+
+    // Working days from the earlier day up to, not including, the later one, in either order. Like the days
+    // between, it is 0 for the same day and 1 from a Friday to the Saturday after it.
+    public synchronized long businessDaysBetween(long firstEpochDay, long secondEpochDay) {
+        addYears(firstEpochDay, secondEpochDay);
+        return Math.abs(workingDaysBefore(secondEpochDay) - workingDaysBefore(firstEpochDay));
+    }
+
+    public synchronized boolean isBusinessDay(long epochDay) {
+        addYears(epochDay, epochDay + 1);
+        return workingDaysBefore(epochDay + 1) - workingDaysBefore(epochDay) == 1;
+    }
+
+    // Makes sure the years of both days are worked out. Both have to be there before either is looked up,
+    // adding years in front moves the start every count is taken from.
+    private void addYears(long firstEpochDay, long secondEpochDay) {
+        int first = DayCalculator.yearOf(Math.min(firstEpochDay, secondEpochDay));
+        int last = DayCalculator.yearOf(Math.max(firstEpochDay, secondEpochDay));
+        if (first < firstYear || last >= firstYear + yearPrefixes.length) {
+            buildYears(Math.min(first, firstYear), Math.max(last, firstYear + yearPrefixes.length - 1));
+        }
+    }
+
+    // Working days from Jan 1 of firstYear up to the day, the two lookups every count is made of
+    private long workingDaysBefore(long epochDay) {
+        int year = DayCalculator.yearOf(epochDay);
+        int index = year - firstYear;
+        return yearStarts[index] + yearPrefixes[index][(int) (epochDay - DayCalculator.epochDay(year, 1, 1))];
+    }
+
+    @Override
+    public void onDateUpdated() {
+    }
+
+    // Told about every change right away, while the DateManager still holds its lock. Only a day that stops or
+    // starts being a holiday touches the prefixes, the rest of the changes cost a map lookup.
+    @Override
+    public synchronized void onDatesChanged(List<DateChangeEvent> events) {
+        for (DateChangeEvent event : events) {
+            switch (event.getKind()) {
+                case ADDED:
+                case UPDATED:
+                case MOVED:
+                    Date date = event.getDate();
+                    Integer slot = date.hasTag(HOLIDAY_TAG) ? DayOfYearIndex.slotOf(date.getDay()) : null;
+                    if (!Objects.equals(slot, holidaySlotsById.get(date.getId()))) {
+                        removeHoliday(date.getId());
+                        addHoliday(date);
+                    }
+                    break;
+                case REMOVED:
+                    removeHoliday(event.getDate().getId());
+                    break;
+                case BULK_CHANGE:
+                    holidaySlotsById.clear();
+                    Arrays.fill(holidaysPerSlot, 0);
+                    addHolidays(dateManager.getAllDates());
+                    buildYears(firstYear, firstYear + yearPrefixes.length - 1);
+                    break;
+                default:
+                    break; // new types and midnight change no holiday
+            }
+        }
+    }
+
+    private void addHolidays(Collection<Date> dates) {
+        for (Date date : dates) {
+            if (date.hasTag(HOLIDAY_TAG)) {
+                int slot = DayOfYearIndex.slotOf(date.getDay());
+                holidaySlotsById.put(date.getId(), slot);
+                holidaysPerSlot[slot]++;
+            }
+        }
+    }
+
+    private void addHoliday(Date date) {
+        if (!date.hasTag(HOLIDAY_TAG)) {
+            return;
+        }
+        int slot = DayOfYearIndex.slotOf(date.getDay());
+        holidaySlotsById.put(date.getId(), slot);
+        if (holidaysPerSlot[slot]++ == 0) {
+            updateDay(slot);
+        }
+    }
+
+    private void removeHoliday(long id) {
+        Integer slot = holidaySlotsById.remove(id);
+        if (slot != null && --holidaysPerSlot[slot] == 0) {
+            updateDay(slot);
+        }
+    }
+
+    // The day of the slot became a holiday or stopped being one. In every year where that changes whether it
+    // is a working day, the prefixes after it move by one, then the year starts are added up again.
+    private void updateDay(int slot) {
+        for (int i = 0; i < yearPrefixes.length; i++) {
+            int year = firstYear + i;
+            boolean leapYear = DayOfYearIndex.isLeapYear(year);
+            int dayOfYear = DayOfYearIndex.dayOfYear(slot, leapYear);
+            int[] prefixes = yearPrefixes[i];
+            int was = prefixes[dayOfYear + 1] - prefixes[dayOfYear];
+            int now = isWorkingDay(DayCalculator.epochDay(year, 1, 1) + dayOfYear, dayOfYear, leapYear) ? 1 : 0;
+            if (now != was) {
+                for (int d = dayOfYear + 1; d < prefixes.length; d++) {
+                    prefixes[d] += now - was;
+                }
+            }
+        }
+        sumYearStarts();
+    }
+
+    // Works out the prefixes of every year from one up to and including another
+    private void buildYears(int from, int to) {
+        yearPrefixes = new int[to - from + 1][];
+        firstYear = from;
+        for (int i = 0; i < yearPrefixes.length; i++) {
+            int year = from + i;
+            boolean leapYear = DayOfYearIndex.isLeapYear(year);
+            long jan1 = DayCalculator.epochDay(year, 1, 1);
+            int[] prefixes = new int[(leapYear ? 366 : 365) + 1];
+            for (int d = 0; d < prefixes.length - 1; d++) {
+                prefixes[d + 1] = prefixes[d] + (isWorkingDay(jan1 + d, d, leapYear) ? 1 : 0);
+            }
+            yearPrefixes[i] = prefixes;
+        }
+        sumYearStarts();
+    }
+
+    private void sumYearStarts() {
+        yearStarts = new int[yearPrefixes.length + 1];
+        for (int i = 0; i < yearPrefixes.length; i++) {
+            int[] prefixes = yearPrefixes[i];
+            yearStarts[i + 1] = yearStarts[i] + prefixes[prefixes.length - 1];
+        }
+    }
+
+    // Monday to Friday and not a holiday. Epoch day 0 was a Thursday.
+    private boolean isWorkingDay(long epochDay, int dayOfYear, boolean leapYear) {
+        int dayOfWeek = (int) Math.floorMod(epochDay + 3, 7L); // 0 is Monday
+        return dayOfWeek < 5 && !isHoliday(dayOfYear, leapYear);
+    }
+
+    // Outside leap years a holiday on Feb 29 is kept on Feb 28, like MonthDay.atYear does
+    private boolean isHoliday(int dayOfYear, boolean leapYear) {
+        int feb29 = DayOfYearIndex.FEB_29_SLOT;
+        if (leapYear || dayOfYear < feb29 - 1) {
+            return holidaysPerSlot[dayOfYear] > 0;
+        }
+        if (dayOfYear == feb29 - 1) {
+            return holidaysPerSlot[feb29 - 1] > 0 || holidaysPerSlot[feb29] > 0;
+        }
+        return holidaysPerSlot[dayOfYear + 1] > 0;
+    }
+}
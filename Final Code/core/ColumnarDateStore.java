@@ -0,0 +1,437 @@
+//Keeps dates as columns of primitives instead of objects, for stores with millions of dates
+
+package core;
+
+import java.nio.charset.StandardCharsets;
+import java.time.MonthDay;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Only the command line reads the stored dates this way. The DateManager behind the window and the API still
+// keeps every date as an object, so their heap is the same as before.
+public class ColumnarDateStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // One entry per row, a row is one date. Removing a date moves the last row into its place.
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private short[] days = new short[INITIAL_CAPACITY]; // day of the year slot, see DayOfYearIndex
+    private int[] typeIds = new int[INITIAL_CAPACITY]; // index into types, 0 for dates without a type
+    private int[] nameOffsets = new int[INITIAL_CAPACITY]; // start of the name in the arena, -1 for no name
+    private int[] tagSetIds = new int[INITIAL_CAPACITY]; // index into tagSets, 0 for dates without extra tags
+    private final BitSet stickied = new BitSet();
+    private int size;
+
+    // Names are stored one after the other as their UTF-8 length and bytes, changed names leave garbage
+    // behind that is compacted away once it is half of the arena
+    private byte[] names = new byte[INITIAL_CAPACITY * 16];
+    private int namesEnd;
+    private int garbageBytes;
+
+    // Each type string is kept once, rows refer to it by its index
+    private String[] types = new String[8];
+    private final Map<String, Integer> typeIdsByName = new HashMap<>();
+    private int typeCount = 1;
+
+    // Each distinct list of extra tags is kept once, most dates have none and share the empty list
+    private final List<List<String>> tagSets = new ArrayList<>(List.of(List.of()));
+    private final Map<List<String>, Integer> tagSetIdsByTags = new HashMap<>(Map.of(List.of(), 0));
+
+    private final RowsById rowsById = new RowsById();
+
+    // Adds the date, or replaces the stored date with the same id. The id must have been assigned.
+    public void put(Date date) {
+        long id = date.getId();
+        if (id == 0) {
+            throw new IllegalArgumentException("date has no id");
+        }
+        int row = rowsById.get(id);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = id;
+            rowsById.put(id, row);
+        } else {
+            releaseName(row);
+        }
+        days[row] = (short) DayOfYearIndex.slotOf(date.getDay());
+        typeIds[row] = typeIdOf(date.getType());
+        tagSetIds[row] = tagSetIdOf(date.getExtraTags());
+        stickied.set(row, date.isStickied());
+        nameOffsets[row] = appendName(date.getName());
+    }
+
+    // Removes the date with the given id, returns false if there is none
+    public boolean remove(long id) {
+        int row = rowsById.remove(id);
+        if (row < 0) {
+            return false;
+        }
+        releaseName(row);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            days[row] = days[last];
+            typeIds[row] = typeIds[last];
+            nameOffsets[row] = nameOffsets[last];
+            tagSetIds[row] = tagSetIds[last];
+            stickied.set(row, stickied.get(last));
+            rowsById.put(ids[row], row);
+        }
+        stickied.clear(last);
+        return true;
+    }
+
+    // Gives back the room kept for growing, for a store that is done loading
+    public void trimToSize() {
+        ids = Arrays.copyOf(ids, size);
+        days = Arrays.copyOf(days, size);
+        typeIds = Arrays.copyOf(typeIds, size);
+        nameOffsets = Arrays.copyOf(nameOffsets, size);
+        tagSetIds = Arrays.copyOf(tagSetIds, size);
+        if (garbageBytes > 0) {
+            compactNames();
+        }
+        names = Arrays.copyOf(names, namesEnd);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns a view of the date with the given id, or null if there is none
+    public Date getDateById(long id) {
+        int row = rowsById.get(id);
+        return row < 0 ? null : new RowView(row);
+    }
+
+    // Every date in the order of the main window: stickied first, each part by next occurrence from today.
+    // Only an array of row numbers is built, the dates are views made when they are asked for.
+    public List<Date> getAllDates(MonthDay today) {
+        return new Rows(orderRows(today, null, 0, DayOfYearIndex.DAYS_IN_YEAR - 1));
+    }
+
+    // Dates whose type matches, ignoring case, in the same order
+    public List<Date> getDatesOfType(String type, MonthDay today) {
+        BitSet matching = new BitSet(typeCount);
+        for (int i = 1; i < typeCount; i++) {
+            if (types[i].equalsIgnoreCase(type)) {
+                matching.set(i);
+            }
+        }
+        if (matching.isEmpty()) {
+            return List.of();
+        }
+        return new Rows(orderRows(today, matching, 0, DayOfYearIndex.DAYS_IN_YEAR - 1));
+    }
+
+    // Dates from one day up to and including another, wrapping around the end of the year, in the same order
+    // counting from the first day
+    public List<Date> getBetween(MonthDay from, MonthDay to) {
+        int fromSlot = DayOfYearIndex.slotOf(from);
+        int toSlot = DayOfYearIndex.slotOf(to);
+        int length = (toSlot - fromSlot + DayOfYearIndex.DAYS_IN_YEAR) % DayOfYearIndex.DAYS_IN_YEAR;
+        return new Rows(orderRows(from, null, 0, length));
+    }
+
+    // Sorts the matching rows by counting them per day: one pass over the day column to count, one to place.
+    // Days are counted from today, stickied rows get the first 366 counters. Rows of the same day keep their
+    // row order. Only days from firstDay to lastDay after today are kept.
+    private int[] orderRows(MonthDay today, BitSet typeFilter, int firstDay, int lastDay) {
+        int todaySlot = DayOfYearIndex.slotOf(today);
+        int[] starts = new int[2 * DayOfYearIndex.DAYS_IN_YEAR + 1];
+        for (int row = 0; row < size; row++) {
+            int bucket = bucketOf(row, todaySlot, typeFilter, firstDay, lastDay);
+            if (bucket >= 0) {
+                starts[bucket + 1]++;
+            }
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] order = new int[starts[starts.length - 1]];
+        for (int row = 0; row < size; row++) {
+            int bucket = bucketOf(row, todaySlot, typeFilter, firstDay, lastDay);
+            if (bucket >= 0) {
+                order[starts[bucket]++] = row;
+            }
+        }
+        return order;
+    }
+
+    private int bucketOf(int row, int todaySlot, BitSet typeFilter, int firstDay, int lastDay) {
+        if (typeFilter != null && !typeFilter.get(typeIds[row])) {
+            return -1;
+        }
+        int daysFromToday = (days[row] - todaySlot + DayOfYearIndex.DAYS_IN_YEAR) % DayOfYearIndex.DAYS_IN_YEAR;
+        if (daysFromToday < firstDay || daysFromToday > lastDay) {
+            return -1;
+        }
+        return stickied.get(row) ? daysFromToday : DayOfYearIndex.DAYS_IN_YEAR + daysFromToday;
+    }
+
+    private int typeIdOf(String type) {
+        if (type == null) {
+            return 0;
+        }
+        Integer id = typeIdsByName.get(type);
+        if (id != null) {
+            return id;
+        }
+        if (typeCount == types.length) {
+            types = Arrays.copyOf(types, typeCount * 2);
+        }
+        types[typeCount] = type;
+        typeIdsByName.put(type, typeCount);
+        return typeCount++;
+    }
+
+    private int tagSetIdOf(List<String> extraTags) {
+        Integer id = tagSetIdsByTags.get(extraTags);
+        if (id != null) {
+            return id;
+        }
+        List<String> tags = List.copyOf(extraTags);
+        tagSets.add(tags);
+        tagSetIdsByTags.put(tags, tagSets.size() - 1);
+        return tagSets.size() - 1;
+    }
+
+    private int appendName(String name) {
+        if (name == null) {
+            return -1;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int needed = namesEnd + 5 + bytes.length;
+        if (needed > names.length) {
+            names = Arrays.copyOf(names, Math.max(needed, names.length * 2));
+        }
+        int offset = namesEnd;
+        namesEnd = writeLength(bytes.length, namesEnd);
+        System.arraycopy(bytes, 0, names, namesEnd, bytes.length);
+        namesEnd += bytes.length;
+        return offset;
+    }
+
+    // The name of the row is no longer used, compacts the arena once enough of it is unused
+    private void releaseName(int row) {
+        int offset = nameOffsets[row];
+        if (offset < 0) {
+            return;
+        }
+        int length = readLength(offset);
+        garbageBytes += lengthBytes(offset) + length;
+        nameOffsets[row] = -1; // so compaction skips it, the caller sets the new name
+        if (garbageBytes > namesEnd / 2 && namesEnd > 4096) {
+            compactNames();
+        }
+    }
+
+    // Copies every name still in use to a new arena in row order
+    private void compactNames() {
+        byte[] compacted = new byte[Math.max(INITIAL_CAPACITY * 16, (namesEnd - garbageBytes) * 3 / 2)];
+        int end = 0;
+        for (int row = 0; row < size; row++) {
+            int offset = nameOffsets[row];
+            if (offset < 0) {
+                continue;
+            }
+            int total = lengthBytes(offset) + readLength(offset);
+            System.arraycopy(names, offset, compacted, end, total);
+            nameOffsets[row] = end;
+            end += total;
+        }
+        names = compacted;
+        namesEnd = end;
+        garbageBytes = 0;
+    }
+
+    // Lengths are stored 7 bits per byte, so names shorter than 128 bytes take one extra byte
+    private int writeLength(int length, int offset) {
+        while ((length & ~0x7F) != 0) {
+            names[offset++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        names[offset++] = (byte) length;
+        return offset;
+    }
+
+    private int readLength(int offset) {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = names[offset++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return length;
+            }
+        }
+    }
+
+    private int lengthBytes(int offset) {
+        int count = 1;
+        while ((names[offset++] & 0x80) != 0) {
+            count++;
+        }
+        return count;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(Math.max(capacity, INITIAL_CAPACITY), ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        days = Arrays.copyOf(days, newCapacity);
+        typeIds = Arrays.copyOf(typeIds, newCapacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, newCapacity);
+        tagSetIds = Arrays.copyOf(tagSetIds, newCapacity);
+    }
+
+    // Rows in a given order seen as a list, each get() makes a view of one row
+    private class Rows extends AbstractList<Date> {
+        private final int[] order;
+
+        Rows(int[] order) {
+            this.order = order;
+        }
+
+        @Override
+        public Date get(int index) {
+            return new RowView(order[index]);
+        }
+
+        @Override
+        public int size() {
+            return order.length;
+        }
+    }
+
+    // A date backed by one row of the columns. Rows move when dates are removed, so views are only valid
+    // until the store is next changed.
+    private class RowView extends DateView {
+        private static final long serialVersionUID = 1L;
+
+        private final int row;
+
+        RowView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public long getId() {
+            return ids[row];
+        }
+
+        @Override
+        public String getName() {
+            int offset = nameOffsets[row];
+            if (offset < 0) {
+                return null;
+            }
+            int length = readLength(offset);
+            return new String(names, offset + lengthBytes(offset), length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public MonthDay getDay() {
+            return DayOfYearIndex.dayOf(days[row]);
+        }
+
+        @Override
+        public String getType() {
+            return types[typeIds[row]];
+        }
+
+        @Override
+        public List<String> getExtraTags() {
+            return tagSets.get(tagSetIds[row]);
+        }
+
+        @Override
+        public boolean isStickied() {
+            return stickied.get(row);
+        }
+    }
+
+    // Maps ids to rows with open addressing over two arrays, a HashMap would cost an entry and a boxed Long
+    // for every date, more than the date itself takes here
+    private static class RowsById {
+        private long[] keys = new long[INITIAL_CAPACITY * 2]; // 0 marks a free slot, ids are never 0
+        private int[] rows = new int[INITIAL_CAPACITY * 2];
+        private int count;
+
+        int get(long id) {
+            for (int slot = slotOf(id); ; slot = (slot + 1) & (keys.length - 1)) {
+                if (keys[slot] == id) {
+                    return rows[slot];
+                }
+                if (keys[slot] == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long id, int row) {
+            if ((count + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int slot = slotOf(id);
+            while (keys[slot] != 0 && keys[slot] != id) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = id;
+                count++;
+            }
+            rows[slot] = row;
+        }
+
+        // Returns the row the id had, or -1. The entries after it are shifted back so lookups never stop early.
+        int remove(long id) {
+            int mask = keys.length - 1;
+            int slot = slotOf(id);
+            while (keys[slot] != id) {
+                if (keys[slot] == 0) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int row = rows[slot];
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = slotOf(keys[next]);
+                // The entry can fill the hole if its home slot is not between the hole and where it is now
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    rows[hole] = rows[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = 0;
+            count--;
+            return row;
+        }
+
+        private int slotOf(long id) {
+            long hash = id * 0x9E3779B97F4A7C15L; // spreads consecutive ids over the table
+            return (int) (hash >>> 32) & (keys.length - 1);
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldRows = rows;
+            keys = new long[oldKeys.length * 2];
+            rows = new int[oldKeys.length * 2];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldRows[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+//Represents Date objects manipulated by other classes
+
+package core;
+
+import java.time.MonthDay;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class Date implements Serializable {
+    private static final long serialVersionUID = 1453957786704387569L; // keeps existing .dat files readable
+
+    private long id; // unique id of the date, 0 until assigned by the DateManager
+    private String name; // name of the day
+    private MonthDay day; // stores the day and month
+    private String type; // type of the date
+    private boolean stickied; // indicates if the date is stickied on top
+    private List<String> extraTags; // tags besides the type, null when there are none
+
+    // Constructor
+    public Date(String name, int month, int day, String type, boolean stickied) {
+        this(0, name, month, day, type, stickied);
+    }
+
+    // Constructor for dates that already have an id
+    public Date(long id, String name, int month, int day, String type, boolean stickied) {
+        this.id = id;
+        this.name = name;
+        this.day = MonthDay.of(month, day);
+        this.type = type;
+        this.stickied = stickied;
+    }
+
+    // For views that read their fields from somewhere else and override the getters
+    protected Date() {
+    }
+
+    // Getters and setters for date attributes
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public MonthDay getDay() {
+        return day;
+    }
+
+    public void setDay(int month, int day) {
+        this.day = MonthDay.of(month, day);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public boolean isStickied() {
+        return stickied;
+    }
+
+    public void setStickied(boolean stickied) {
+        this.stickied = stickied;
+    }
+
+    // Tags besides the type, read only
+    public List<String> getExtraTags() {
+        return extraTags == null ? List.of() : Collections.unmodifiableList(extraTags);
+    }
+
+    // Replaces the tags besides the type, blank tags and repeats of the type are left out
+    public void setExtraTags(Collection<String> tags) {
+        List<String> kept = new ArrayList<>();
+        for (String tag : tags) {
+            String trimmed = tag.trim();
+            if (!trimmed.isEmpty() && !trimmed.equalsIgnoreCase(getType()) && !containsIgnoreCase(kept, trimmed)) {
+                kept.add(trimmed);
+            }
+        }
+        extraTags = kept.isEmpty() ? null : kept;
+    }
+
+    // The type followed by the extra tags
+    public List<String> getTags() {
+        List<String> tags = new ArrayList<>();
+        if (getType() != null) {
+            tags.add(getType());
+        }
+        for (String tag : getExtraTags()) {
+            if (!tag.equalsIgnoreCase(getType())) { // the type may have been changed to one of them
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    // Returns true if the type or one of the extra tags is the tag, ignoring case
+    public boolean hasTag(String tag) {
+        return tag.equalsIgnoreCase(getType()) || containsIgnoreCase(getExtraTags(), tag);
+    }
+
+    private static boolean containsIgnoreCase(List<String> tags, String tag) {
+        for (String existing : tags) {
+            if (existing.equalsIgnoreCase(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Dates are the same record when they have the same id, dates without an id are only equal to themselves
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Date) || getId() == 0) {
+            return false;
+        }
+        return getId() == ((Date) other).getId();
+    }
+
+    @Override
+    public int hashCode() {
+        long id = getId();
+        return id == 0 ? System.identityHashCode(this) : Long.hashCode(id);
+    }
+
+    // Returns an independent copy of this date
+    public Date copy() {
+        MonthDay day = getDay();
+        Date copy = new Date(getId(), getName(), day.getMonthValue(), day.getDayOfMonth(), getType(), isStickied());
+        copy.setExtraTags(getExtraTags());
+        return copy;
+    }
+}
@@ -0,0 +1,93 @@
+//Describes a single change made through the DateManager, positions refer to the order of getOrderedView()
+
+package core;
+
+public class DateChangeEvent {
+    public enum Kind {
+        ADDED, // a new date, only the new position is set
+        UPDATED, // a date changed but kept its position
+        MOVED, // a date changed and moved to another position
+        REMOVED, // a date was deleted, only the old position is set
+        TYPE_ADDED, // a new custom type, there is no date
+        DAY_CHANGED, // midnight passed, every position and days count may have changed
+        BULK_CHANGE // a batch changed too many dates to list them one by one
+    }
+
+    public static final int NO_POSITION = -1;
+
+    private final Kind kind;
+    private final Date date;
+    private final String type;
+    private final int oldPosition;
+    private final int newPosition;
+    private long version; // version of the first snapshot that includes the change
+
+    public DateChangeEvent(Kind kind, Date date, String type, int oldPosition, int newPosition) {
+        this.kind = kind;
+        this.date = date;
+        this.type = type;
+        this.oldPosition = oldPosition;
+        this.newPosition = newPosition;
+    }
+
+    // Works out the kind of change for a date from where it was and where it is now
+    public static DateChangeEvent forDate(Date date, int oldPosition, int newPosition) {
+        Kind kind;
+        if (oldPosition == NO_POSITION) {
+            kind = Kind.ADDED;
+        } else if (newPosition == NO_POSITION) {
+            kind = Kind.REMOVED;
+        } else if (oldPosition == newPosition) {
+            kind = Kind.UPDATED;
+        } else {
+            kind = Kind.MOVED;
+        }
+        return new DateChangeEvent(kind, date, date.getType(), oldPosition, newPosition);
+    }
+
+    public static DateChangeEvent typeAdded(String type) {
+        return new DateChangeEvent(Kind.TYPE_ADDED, null, type, NO_POSITION, NO_POSITION);
+    }
+
+    public static DateChangeEvent dayChanged() {
+        return new DateChangeEvent(Kind.DAY_CHANGED, null, null, NO_POSITION, NO_POSITION);
+    }
+
+    public static DateChangeEvent bulkChange() {
+        return new DateChangeEvent(Kind.BULK_CHANGE, null, null, NO_POSITION, NO_POSITION);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getOldPosition() {
+        return oldPosition;
+    }
+
+    public int getNewPosition() {
+        return newPosition;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Set by the DateManager when the change is published, before anyone is told about it
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + (date != null ? date.getName() : type) + " " + oldPosition + "->" + newPosition;
+    }
+}
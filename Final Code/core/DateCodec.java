@@ -0,0 +1,179 @@
+//Encodes and decodes dates in the compact binary format used by the dat files
+
+package core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+public class DateCodec {
+    // Header layout: magic, format version, checksum of everything after the header
+    public static final int MAGIC = 0x4454524B; // "DTRK"
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 4 + 1 + 4;
+    public static final int CHECKSUM_OFFSET = 5;
+
+    // Record flags
+    private static final int FLAG_STICKIED = 1;
+    private static final int FLAG_NO_NAME = 2;
+
+    // Writes the header with an empty checksum, the caller fills it in once the body is written
+    public static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(0);
+    }
+
+    // Writes the type dictionary followed by every date, types are stored as an index into the dictionary
+    public static void writeBody(OutputStream out, Collection<Date> dates, Collection<String> types) throws IOException {
+        Set<String> dictionary = new LinkedHashSet<>(types);
+        for (Date date : dates) {
+            if (date.getType() != null) {
+                dictionary.add(date.getType());
+            }
+            dictionary.addAll(date.getExtraTags());
+        }
+        Map<String, Integer> typeIndexes = new HashMap<>();
+        writeVarLong(out, dictionary.size());
+        for (String type : dictionary) {
+            typeIndexes.put(type, typeIndexes.size() + 1); // 0 is reserved for dates without a type
+            writeString(out, type);
+        }
+
+        writeVarLong(out, dates.size());
+        for (Date date : dates) {
+            writeVarLong(out, date.getId());
+            int packedDay = packDay(date.getDay().getMonthValue(), date.getDay().getDayOfMonth());
+            out.write(packedDay >>> 8);
+            out.write(packedDay);
+            writeVarLong(out, date.getType() == null ? 0 : typeIndexes.get(date.getType()));
+            List<String> extraTags = date.getExtraTags();
+            writeVarLong(out, extraTags.size());
+            for (String tag : extraTags) {
+                writeVarLong(out, typeIndexes.get(tag));
+            }
+            int flags = (date.isStickied() ? FLAG_STICKIED : 0) | (date.getName() == null ? FLAG_NO_NAME : 0);
+            out.write(flags);
+            if (date.getName() != null) {
+                writeString(out, date.getName());
+            }
+        }
+    }
+
+    // Decodes a whole file, adding the type dictionary to types when it is not null
+    public static List<Date> decode(ByteBuffer buffer, Set<String> types) throws IOException {
+        List<Date> dates = new ArrayList<>();
+        decode(buffer, types, dates::add);
+        return dates;
+    }
+
+    // Hands each date to the consumer as soon as it is decoded, in file order. The checksum covers the whole
+    // file and is checked first, so nothing is handed out from a damaged file.
+    public static void decode(ByteBuffer buffer, Set<String> types, Consumer<Date> decoded) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("not a date file");
+        }
+        int version = buffer.get();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("unsupported format version " + version);
+        }
+        int checksum = buffer.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("checksum mismatch");
+        }
+
+        try {
+            int typeCount = (int) readVarLong(buffer);
+            String[] dictionary = new String[typeCount + 1];
+            for (int i = 1; i <= typeCount; i++) {
+                dictionary[i] = readString(buffer);
+                if (types != null) {
+                    types.add(dictionary[i]);
+                }
+            }
+
+            int dateCount = (int) readVarLong(buffer);
+            for (int i = 0; i < dateCount; i++) {
+                long id = readVarLong(buffer);
+                int packedDay = buffer.getShort() & 0xFFFF;
+                String type = dictionary[(int) readVarLong(buffer)];
+                String[] extraTags = new String[(int) readVarLong(buffer)];
+                for (int t = 0; t < extraTags.length; t++) {
+                    extraTags[t] = dictionary[(int) readVarLong(buffer)];
+                }
+                int flags = buffer.get();
+                String name = (flags & FLAG_NO_NAME) != 0 ? null : readString(buffer);
+                Date date = new Date(id, name, unpackMonth(packedDay), unpackDay(packedDay), type,
+                        (flags & FLAG_STICKIED) != 0);
+                if (extraTags.length > 0) {
+                    date.setExtraTags(List.of(extraTags));
+                }
+                decoded.accept(date);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("corrupt date file", e);
+        }
+    }
+
+    // Month and day packed into two bytes, 4 bits for the month and 5 for the day
+    public static int packDay(int month, int day) {
+        return (month << 5) | day;
+    }
+
+    public static int unpackMonth(int packedDay) {
+        return packedDay >>> 5;
+    }
+
+    public static int unpackDay(int packedDay) {
+        return packedDay & 0x1F;
+    }
+
+    // Strings are stored as their UTF-8 length followed by the bytes
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // Numbers are stored 7 bits per byte so small ids and counts take a single byte
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed number");
+    }
+}
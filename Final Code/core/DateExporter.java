@@ -0,0 +1,142 @@
+//Writes the dates of a DateManager to CSV or iCalendar, streaming them in order without copying the list
+
+package core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+public class DateExporter {
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter ICS_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final MonthDay FEB_29 = MonthDay.of(2, 29);
+    private static final int ICS_LINE_OCTETS = 75; // longest content line RFC 5545 allows, without the CRLF
+
+    private final DateManager dateManager;
+
+    public DateExporter(DateManager dateManager) {
+        this.dateManager = dateManager;
+    }
+
+    // Writes every date to the file, the format is picked from the extension like the importer does
+    public int exportFile(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return exportTo(writer, DateImporter.Format.of(file));
+        }
+    }
+
+    // Returns the number of dates written
+    public int exportTo(Writer output, DateImporter.Format format) throws IOException {
+        Writer writer = output instanceof BufferedWriter ? output : new BufferedWriter(output);
+        int count = 0;
+        // A snapshot never changes, so the dates are streamed without locking or copying
+        List<Date> dates = dateManager.getSnapshot().getAllDates();
+        if (format == DateImporter.Format.ICS) {
+            String timestamp = ZonedDateTime.now(ZoneOffset.UTC).format(ICS_TIMESTAMP);
+            writer.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//Date Tracker//EN\r\n");
+            for (Date date : dates) {
+                writeIcsEvent(writer, date, timestamp);
+                count++;
+            }
+            writer.write("END:VCALENDAR\r\n");
+        } else {
+            writer.write("name,month,day,type,stickied,tags\n");
+            for (Date date : dates) {
+                writer.write(csvField(date.getName()));
+                writer.write(',');
+                writer.write(Integer.toString(date.getDay().getMonthValue()));
+                writer.write(',');
+                writer.write(Integer.toString(date.getDay().getDayOfMonth()));
+                writer.write(',');
+                writer.write(csvField(date.getType()));
+                writer.write(',');
+                writer.write(Boolean.toString(date.isStickied()));
+                writer.write(',');
+                // Extra tags are separated by commas like in the tags field of the window, so the column is quoted
+                writer.write(csvField(String.join(",", date.getExtraTags())));
+                writer.write('\n');
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    // Each date becomes a yearly all-day event starting at its next occurrence
+    private void writeIcsEvent(Writer writer, Date date, String timestamp) throws IOException {
+        LocalDate next = LocalDate.ofEpochDay(dateManager.getDayRollover().nextOccurrenceEpochDay(date));
+        if (date.getDay().equals(FEB_29)) {
+            // The next occurrence falls on Feb 28 in a common year, start on the next real Feb 29 instead so the
+            // day survives being imported again
+            int year = next.getYear();
+            while (!Year.isLeap(year)) {
+                year++;
+            }
+            next = LocalDate.of(year, 2, 29);
+        }
+        writeIcsLine(writer, "BEGIN:VEVENT");
+        writeIcsLine(writer, "UID:" + date.getId() + "@date-tracker");
+        writeIcsLine(writer, "DTSTAMP:" + timestamp);
+        writeIcsLine(writer, "DTSTART;VALUE=DATE:" + next.format(ICS_DATE));
+        writeIcsLine(writer, "RRULE:FREQ=YEARLY");
+        if (date.getName() != null) {
+            writeIcsLine(writer, "SUMMARY:" + escapeIcs(date.getName()));
+        }
+        List<String> tags = date.getTags();
+        if (!tags.isEmpty()) {
+            // The type comes first, which is how the importer tells it from the extra tags
+            StringBuilder categories = new StringBuilder("CATEGORIES:");
+            for (int i = 0; i < tags.size(); i++) {
+                categories.append(i == 0 ? "" : ",").append(escapeIcs(tags.get(i)));
+            }
+            writeIcsLine(writer, categories.toString());
+        }
+        if (date.isStickied()) {
+            writeIcsLine(writer, "X-DATE-TRACKER-STICKIED:TRUE");
+        }
+        writeIcsLine(writer, "END:VEVENT");
+    }
+
+    // Writes the line and its CRLF, folding it so no line is longer than 75 octets of UTF-8.
+    // Folds only fall between characters and every continued line starts with a space.
+    private static void writeIcsLine(Writer writer, String line) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int chars = Character.charCount(codePoint);
+            int length = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + length > ICS_LINE_OCTETS) {
+                writer.write("\r\n ");
+                octets = 1;
+            }
+            writer.write(line, i, chars);
+            octets += length;
+            i += chars;
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\n", " ").replace("\"", "\"\"") + '"';
+    }
+
+    private static String escapeIcs(String value) {
+        return value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+}
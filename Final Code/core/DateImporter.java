@@ -0,0 +1,382 @@
+//Reads dates from CSV or iCalendar files in chunks, parsing them in parallel and adding them to the DateManager in batches
+
+package core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DateImporter {
+    public enum Format {
+        CSV, ICS;
+
+        // Picks the format from the file extension, CSV unless it ends in .ics
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith(".ics") ? ICS : CSV;
+        }
+    }
+
+    private static final int CHUNK_LINES = 4096; // lines handed to one parser task
+    private static final int BATCH_SIZE = 10_000; // dates added to the DateManager per batch
+    private static final int MAX_REJECTED_DETAILS = 100; // rejected lines kept with their reason
+
+    private final DateManager dateManager;
+    private final String defaultType; // used for lines without a type
+    private final int parserThreads;
+
+    // What came out of one import
+    public static class Result {
+        private long lines;
+        private long imported;
+        private long duplicates;
+        private long rejected;
+        private final List<String> rejectedDetails = new ArrayList<>();
+        private long elapsedNanos;
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        // "line N: reason" for the first rejected lines
+        public List<String> getRejectedDetails() {
+            return rejectedDetails;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1_000_000_000.0;
+        }
+
+        public double getLinesPerSecond() {
+            return elapsedNanos == 0 ? 0 : lines / getElapsedSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lines, %d imported, %d duplicates, %d rejected in %.2f s (%.0f lines/s)",
+                    lines, imported, duplicates, rejected, getElapsedSeconds(), getLinesPerSecond());
+        }
+    }
+
+    // A run of lines and what the parser made of them
+    private static class Chunk {
+        final long firstLine; // line number of the first line, counting from 1
+        final List<String> lines;
+        final List<Date> dates = new ArrayList<>();
+        final List<String> rejected = new ArrayList<>();
+
+        Chunk(long firstLine, List<String> lines) {
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+
+    public DateImporter(DateManager dateManager, String defaultType) {
+        this(dateManager, defaultType, Runtime.getRuntime().availableProcessors());
+    }
+
+    public DateImporter(DateManager dateManager, String defaultType, int parserThreads) {
+        this.dateManager = dateManager;
+        this.defaultType = defaultType;
+        this.parserThreads = Math.max(1, parserThreads);
+    }
+
+    public Result importFile(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, Format.of(file));
+        }
+    }
+
+    // Streams the input through the parsers, only a few chunks are held in memory at any time
+    public Result importFrom(Reader input, Format format) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        Set<String> seen = new HashSet<>();
+        for (Date date : dateManager.getAllDates()) {
+            seen.add(dedupKey(date));
+        }
+        List<Date> batch = new ArrayList<>();
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, runnable -> {
+            Thread thread = new Thread(runnable, "date-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+            long lineNumber = 0;
+            long chunkStart = 1;
+            List<String> lines = new ArrayList<>(CHUNK_LINES);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                lines.add(line);
+                // iCalendar chunks end on an event boundary so no event is split between two parsers
+                boolean boundary = format == Format.CSV || line.trim().equalsIgnoreCase("END:VEVENT");
+                if (lines.size() >= CHUNK_LINES && boundary) {
+                    inFlight.add(submit(parsers, new Chunk(chunkStart, lines), format));
+                    lines = new ArrayList<>(CHUNK_LINES);
+                    chunkStart = lineNumber + 1;
+                    // Keep memory bounded, wait for the oldest chunk before reading further
+                    if (inFlight.size() >= parserThreads * 2) {
+                        collect(inFlight.poll(), seen, batch, result);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(parsers, new Chunk(chunkStart, lines), format));
+            }
+            while (!inFlight.isEmpty()) {
+                collect(inFlight.poll(), seen, batch, result);
+            }
+            commit(batch, result);
+            result.lines = lineNumber;
+        } finally {
+            parsers.shutdownNow();
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private Future<Chunk> submit(ExecutorService parsers, Chunk chunk, Format format) {
+        return parsers.submit(() -> {
+            if (format == Format.ICS) {
+                parseIcs(chunk);
+            } else {
+                parseCsv(chunk);
+            }
+            return chunk;
+        });
+    }
+
+    // Takes a parsed chunk in file order, drops duplicates and adds the rest to the pending batch
+    private void collect(Future<Chunk> future, Set<String> seen, List<Date> batch, Result result) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error parsing import: " + e.getCause().getMessage(), e.getCause());
+        }
+        for (String rejected : chunk.rejected) {
+            result.rejected++;
+            if (result.rejectedDetails.size() < MAX_REJECTED_DETAILS) {
+                result.rejectedDetails.add(rejected);
+            }
+        }
+        for (Date date : chunk.dates) {
+            if (!seen.add(dedupKey(date))) {
+                result.duplicates++;
+                continue;
+            }
+            batch.add(date);
+            if (batch.size() >= BATCH_SIZE) {
+                commit(batch, result);
+            }
+        }
+    }
+
+    private void commit(List<Date> batch, Result result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        dateManager.batch(editor -> batch.forEach(editor::addOrUpdateDate));
+        result.imported += batch.size();
+        batch.clear();
+    }
+
+    // Dates count as the same when name, day and type match, types ignore case like the custom types do
+    private static String dedupKey(Date date) {
+        return date.getName() + '\u0000' + date.getDay().getMonthValue() + '/' + date.getDay().getDayOfMonth()
+                + '\u0000' + (date.getType() == null ? "" : date.getType().toLowerCase());
+    }
+
+    // CSV lines are name,month,day,type,stickied,tags, the last three columns may be left out.
+    // Tags are the extra tags besides the type, separated by commas inside the quoted field.
+    private void parseCsv(Chunk chunk) {
+        List<String> fields = new ArrayList<>(6);
+        for (int i = 0; i < chunk.lines.size(); i++) {
+            String line = chunk.lines.get(i);
+            long lineNumber = chunk.firstLine + i;
+            if (line.isBlank() || lineNumber == 1 && line.toLowerCase().startsWith("name,")) {
+                continue; // empty line or header
+            }
+            String error = splitCsv(line, fields);
+            if (error == null && fields.size() < 3) {
+                error = "expected name,month,day[,type[,stickied[,tags]]]";
+            }
+            if (error != null) {
+                chunk.rejected.add("line " + lineNumber + ": " + error);
+                continue;
+            }
+            String type = fields.size() > 3 && !fields.get(3).isBlank() ? fields.get(3).trim() : defaultType;
+            String stickied = fields.size() > 4 ? fields.get(4).trim() : "";
+            List<String> extraTags = fields.size() > 5 && !fields.get(5).isBlank()
+                    ? Arrays.asList(fields.get(5).split(",")) : List.of();
+            addParsed(chunk, lineNumber, fields.get(0), fields.get(1).trim(), fields.get(2).trim(), type,
+                    extraTags, stickied.equalsIgnoreCase("true") || stickied.equals("1"));
+        }
+    }
+
+    // Splits a line into fields, quoted fields may contain commas and doubled quotes
+    private static String splitCsv(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return quoted ? "unterminated quote" : null;
+    }
+
+    // Reads the SUMMARY, DTSTART and CATEGORIES of each VEVENT, everything else is ignored.
+    // The first category is the type, the others become extra tags.
+    private void parseIcs(Chunk chunk) {
+        String name = null;
+        String start = null;
+        String type = null;
+        List<String> extraTags = new ArrayList<>();
+        boolean stickied = false;
+        boolean inEvent = false;
+        long eventLine = 0;
+        List<String> lines = chunk.lines;
+        for (int i = 0; i < lines.size(); i++) {
+            // Long lines are folded onto following lines that start with a space or tab
+            StringBuilder unfolded = new StringBuilder(lines.get(i));
+            while (i + 1 < lines.size() && !lines.get(i + 1).isEmpty()
+                    && (lines.get(i + 1).charAt(0) == ' ' || lines.get(i + 1).charAt(0) == '\t')) {
+                unfolded.append(lines.get(++i), 1, lines.get(i).length());
+            }
+            String line = unfolded.toString();
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String property = line.substring(0, colon).toUpperCase();
+            int parameters = property.indexOf(';');
+            if (parameters >= 0) {
+                property = property.substring(0, parameters);
+            }
+            String value = line.substring(colon + 1).trim();
+            if (property.equals("BEGIN") && value.equalsIgnoreCase("VEVENT")) {
+                inEvent = true;
+                eventLine = chunk.firstLine + i;
+                name = start = type = null;
+                extraTags = new ArrayList<>();
+                stickied = false;
+            } else if (!inEvent) {
+                continue;
+            } else if (property.equals("END") && value.equalsIgnoreCase("VEVENT")) {
+                inEvent = false;
+                if (start == null || start.length() < 8) {
+                    chunk.rejected.add("line " + eventLine + ": event without a DTSTART date");
+                    continue;
+                }
+                addParsed(chunk, eventLine, name, start.substring(4, 6), start.substring(6, 8),
+                        type != null ? type : defaultType, extraTags, stickied);
+            } else if (property.equals("SUMMARY")) {
+                name = unescapeIcs(value);
+            } else if (property.equals("DTSTART")) {
+                start = value;
+            } else if (property.equals("CATEGORIES") && !value.isEmpty()) {
+                for (String category : value.split("(?<!\\\\),")) {
+                    if (type == null) {
+                        type = unescapeIcs(category);
+                    } else {
+                        extraTags.add(unescapeIcs(category));
+                    }
+                }
+            } else if (property.equals("X-DATE-TRACKER-STICKIED")) {
+                stickied = value.equalsIgnoreCase("TRUE");
+            }
+        }
+        if (inEvent) {
+            chunk.rejected.add("line " + eventLine + ": event without END:VEVENT");
+        }
+    }
+
+    private static String unescapeIcs(String value) {
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                text.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    // Checks the fields of one date and adds it to the chunk, or records why it was rejected
+    private static void addParsed(Chunk chunk, long lineNumber, String name, String month, String day, String type,
+            List<String> extraTags, boolean stickied) {
+        int monthValue;
+        int dayValue;
+        try {
+            monthValue = Integer.parseInt(month);
+            dayValue = Integer.parseInt(day);
+        } catch (NumberFormatException e) {
+            chunk.rejected.add("line " + lineNumber + ": month and day must be numbers");
+            return;
+        }
+        if (!DayOfYearIndex.isValidDay(monthValue, dayValue)) {
+            chunk.rejected.add("line " + lineNumber + ": no such day " + monthValue + "/" + dayValue);
+            return;
+        }
+        if (type == null || type.isBlank()) {
+            chunk.rejected.add("line " + lineNumber + ": no type");
+            return;
+        }
+        Date date = new Date(name == null || name.isBlank() ? null : name.trim(), monthValue, dayValue, type, stickied);
+        if (!extraTags.isEmpty()) {
+            date.setExtraTags(extraTags);
+        }
+        chunk.dates.add(date);
+    }
+}
@@ -0,0 +1,736 @@
+//Manipulates Date objects to organize dates into stickied and unstickied lists and a set of types, publishing each change as an immutable snapshot
+
+package core;
+
+import java.io.File;
+import java.nio.channels.FileLock;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+public class DateManager {
+    // Both lists are kept in order of next occurrence by their index, so they never need sorting
+    private DayOfYearIndex stickiedDates;
+    private DayOfYearIndex unstickiedDates;
+    private TypeIndex typeIndex;
+    private TagIndex tagIndex;
+    private Set<String> customTypes;
+    private WriteBehindPersister persister;
+    private FileLock folderLock; // keeps every other DateManager away from the files while this one runs
+    private DayRolloverService dayRollover;
+    // Every date by its id, so lookups, updates and deletes never scan the lists
+    private Map<Long, Date> datesById = new LinkedHashMap<>();
+    private long nextId = 1;
+    private List<Date> orderedView;
+    // The latest published state, readers take it without locking or copying
+    private final AtomicReference<DateSnapshot> snapshot = new AtomicReference<>();
+    // Ids whose date was added, replaced or removed since the last snapshot, the next one copies only those
+    private Set<Long> unpublishedIds = new HashSet<>();
+    private long version;
+    private long loadTimeNanos;
+    // Listeners and how they want their events delivered
+    private List<Subscription> listeners = new CopyOnWriteArrayList<>();
+
+    // What updateDateIfVersion did
+    public enum UpdateResult {
+        UPDATED, NO_SUCH_DATE, VERSION_CHANGED
+    }
+
+    // A listener together with its executor, which is null when it is told about each change right away
+    private static class Subscription {
+        private final DateUpdateListener listener;
+        private final Executor executor;
+        private List<DateChangeEvent> pending = new ArrayList<>();
+        private boolean scheduled;
+
+        Subscription(DateUpdateListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void deliver(List<DateChangeEvent> events) {
+            if (executor == null) {
+                listener.onDatesChanged(events);
+                return;
+            }
+            // Collect the burst and hand it over once, the first event schedules the delivery
+            synchronized (this) {
+                pending.addAll(events);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            executor.execute(this::deliverPending);
+        }
+
+        private void deliverPending() {
+            List<DateChangeEvent> events;
+            synchronized (this) {
+                events = pending;
+                pending = new ArrayList<>();
+                scheduled = false;
+            }
+            listener.onDatesChanged(events);
+        }
+    }
+
+    // Dates handed to the load progress consumer at a time, enough to fill a window on the first call
+    private static final int LOAD_PROGRESS_CHUNK = 500;
+
+    // Above this many changes a batch is announced as one bulk change instead of one event per date
+    private static final int MAX_BATCH_EVENTS = 1000;
+
+    private Batch batch; // the batch being applied, null outside of batch()
+
+    // Changes made inside batch(), kept so they can be persisted and announced together, or undone
+    private static class Batch {
+        private final long firstUnusedId;
+        private final int firstUnusedTag;
+        private final List<Runnable> undoLog = new ArrayList<>();
+        private final Map<Long, Date> changedDates = new LinkedHashMap<>();
+        private final Map<Long, Byte> recordTypes = new HashMap<>();
+        private final List<String> addedTypes = new ArrayList<>();
+        private List<DateChangeEvent> events = new ArrayList<>(); // null once there are too many
+
+        Batch(long firstUnusedId, int firstUnusedTag) {
+            this.firstUnusedId = firstUnusedId;
+            this.firstUnusedTag = firstUnusedTag;
+        }
+
+        void addEvent(DateChangeEvent event) {
+            if (events != null) {
+                events.add(event);
+                if (events.size() > MAX_BATCH_EVENTS) {
+                    events = null;
+                }
+            }
+        }
+    }
+
+    public DateManager() {
+        this(true);
+    }
+
+    public DateManager(boolean journaled) {
+        this(journaled, WriteBehindPersister.DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public DateManager(boolean journaled, long flushIntervalMillis) {
+        this(journaled, flushIntervalMillis, Clock.systemDefaultZone());
+    }
+
+    public DateManager(boolean journaled, long flushIntervalMillis, Clock clock) {
+        this(journaled, flushIntervalMillis, clock, null);
+    }
+
+    // journaled appends each change to the journal instead of rewriting every file,
+    // changes are written in the background at most once per flush interval,
+    // and the clock decides what today is.
+    // loadProgress, if given, gets the dates in chunks while they are decoded, before the constructor returns.
+    // Files are saved in order, so the stickied dates come first and then the nearest ones. The chunks are a
+    // preview on the loading thread, the journal may still change them.
+    // Throws IllegalStateException if another DateManager, in this process or another one, has the files open.
+    public DateManager(boolean journaled, long flushIntervalMillis, Clock clock, Consumer<List<Date>> loadProgress) {
+        long loadStart = System.nanoTime();
+        folderLock = FileDatabaseHelper.lockDataFolder();
+        if (folderLock == null) {
+            throw new IllegalStateException("The dates in " + FileDatabaseHelper.dataFile(FileDatabaseHelper.LOCK_FILE)
+                    .getAbsoluteFile().getParent() + " are already open in another Date Tracker, close it first");
+        }
+        dayRollover = new DayRolloverService(clock);
+        // Load dates from database
+        FileDatabaseHelper.migrateLegacyFiles();
+        List<Date> loadedDates = new ArrayList<>();
+        Consumer<Date> decoded = loadedDates::add;
+        if (loadProgress != null) {
+            decoded = date -> {
+                loadedDates.add(date);
+                if (loadedDates.size() % LOAD_PROGRESS_CHUNK == 0) {
+                    loadProgress.accept(List.copyOf(loadedDates.subList(loadedDates.size() - LOAD_PROGRESS_CHUNK,
+                            loadedDates.size())));
+                }
+            };
+        }
+        FileDatabaseHelper.readDatesFromFile(FileDatabaseHelper.STICKIED_DATES_FILE, decoded);
+        FileDatabaseHelper.readDatesFromFile(FileDatabaseHelper.UNSTICKIED_DATES_FILE, decoded);
+        if (loadProgress != null && loadedDates.size() % LOAD_PROGRESS_CHUNK != 0) {
+            loadProgress.accept(List.copyOf(loadedDates.subList(
+                    loadedDates.size() - loadedDates.size() % LOAD_PROGRESS_CHUNK, loadedDates.size())));
+        }
+        customTypes = FileDatabaseHelper.readCustomTypesFromFile();
+        if (customTypes.isEmpty()) {
+            initializeCustomTypes();
+        }
+        boolean changed = assignMissingIds(loadedDates);
+        for (Date date : loadedDates) {
+            datesById.put(date.getId(), date);
+        }
+        changed |= replayJournal();
+
+        // Build the indexes
+        MonthDay today = dayRollover.getTodayMonthDay();
+        stickiedDates = new DayOfYearIndex(today);
+        unstickiedDates = new DayOfYearIndex(today);
+        typeIndex = new TypeIndex(today);
+        tagIndex = new TagIndex(today);
+        for (String type : customTypes) {
+            tagIndex.intern(type);
+        }
+        orderedView = getOrderedView();
+        for (Date date : datesById.values()) {
+            indexDate(date);
+        }
+        publishSnapshot();
+
+        if (changed) {
+            // Fold the replayed changes into a fresh snapshot so the journal starts empty
+            if (FileDatabaseHelper.writeSnapshot(stickiedDates, unstickiedDates, customTypes)) {
+                FileDatabaseHelper.clearJournal();
+            }
+        }
+        persister = new WriteBehindPersister(journaled, flushIntervalMillis, this::captureState);
+        dayRollover.addRolloverListener(this::rollOver);
+        dayRollover.start();
+        loadTimeNanos = System.nanoTime() - loadStart;
+        DateTrackerMetrics.LOAD.record(loadTimeNanos);
+        DateTrackerMetrics.track(this);
+    }
+
+    // Gives dates saved before ids existed an id, returns true if any were assigned
+    private boolean assignMissingIds(List<Date> dates) {
+        boolean assigned = false;
+        for (Date date : dates) {
+            nextId = Math.max(nextId, date.getId() + 1);
+        }
+        for (Date date : dates) {
+            if (date.getId() == 0) {
+                date.setId(nextId++);
+                assigned = true;
+            }
+        }
+        return assigned;
+    }
+
+    // Applies the journal on top of the loaded snapshot, returns true if it held any changes
+    private boolean replayJournal() {
+        List<File> journals = FileDatabaseHelper.getJournalSegments();
+        journals.add(FileDatabaseHelper.dataFile(FileDatabaseHelper.JOURNAL_FILE));
+
+        int applied = 0;
+        for (File journal : journals) {
+            applied += FileDatabaseHelper.replayJournal(journal, datesById, customTypes);
+        }
+        for (long id : datesById.keySet()) {
+            nextId = Math.max(nextId, id + 1);
+        }
+        return applied > 0;
+    }
+
+    // Adds the date to every index, removing any older entry with the same id first
+    private void indexDate(Date date) {
+        unindexDate(date);
+        if (date.isStickied()) {
+            stickiedDates.add(date);
+        } else {
+            unstickiedDates.add(date);
+        }
+        typeIndex.add(date);
+        tagIndex.add(date);
+    }
+
+    // Removes the date from every index, returns false if it was not indexed
+    private boolean unindexDate(Date date) {
+        unpublishedIds.add(date.getId());
+        boolean existed = stickiedDates.remove(date) | unstickiedDates.remove(date);
+        typeIndex.remove(date);
+        tagIndex.remove(date);
+        return existed;
+    }
+
+    // Initialize sample types
+    private void initializeCustomTypes() {
+        customTypes.add("holiday");
+        customTypes.add("work");
+        FileDatabaseHelper.writeCustomTypesToFile(customTypes);
+    }
+
+    // Called once at local midnight, moves the start of every order to the new day and tells listeners once
+    private synchronized void rollOver(LocalDate newDay) {
+        MonthDay today = MonthDay.from(newDay);
+        stickiedDates.rotateTo(today);
+        unstickiedDates.rotateTo(today);
+        typeIndex.rotateTo(today);
+        tagIndex.rotateTo(today);
+        DateChangeEvent event = DateChangeEvent.dayChanged();
+        event.setVersion(publishSnapshot());
+        fireChange(event);
+    }
+
+    // Updates the date lists with the new passed in date.
+    // Published snapshots share the date, so it must not be changed afterwards, use updateDate instead.
+    public synchronized void addOrUpdateDate(Date date) {
+        if (date.getId() == 0) {
+            date.setId(nextId++);
+        }
+        rememberForUndo(date.getId());
+        boolean existed = datesById.put(date.getId(), date) != null;
+        int oldPosition = existed ? positionOf(date) : DateChangeEvent.NO_POSITION;
+
+        // Add the date to the appropriate list, replacing the old entry if it already exists
+        indexDate(date);
+
+        // Track the custom types, every tag is one
+        for (String tag : date.getTags()) {
+            addCustomType(tag);
+        }
+
+        recordChange(existed ? FileDatabaseHelper.JOURNAL_UPDATE : FileDatabaseHelper.JOURNAL_ADD, date, oldPosition);
+    }
+
+    // Changes every attribute of the date with the given id, returns false if there is no such date
+    public synchronized boolean updateDate(long id, String name, int month, int day, String type, boolean stickied) {
+        Date current = datesById.get(id);
+        if (current == null) {
+            return false;
+        }
+        return updateDate(id, name, month, day, type, current.getExtraTags(), stickied);
+    }
+
+    // Also replaces the tags besides the type
+    public synchronized boolean updateDate(long id, String name, int month, int day, String type,
+            List<String> extraTags, boolean stickied) {
+        Date current = datesById.get(id);
+        if (current == null) {
+            return false;
+        }
+        // Change a copy, the current date may be part of a published snapshot
+        Date date = current.copy();
+        date.setDay(month, day); // first, so an invalid day leaves the date unchanged
+        date.setName(name);
+        date.setType(type);
+        date.setExtraTags(extraTags);
+        date.setStickied(stickied);
+        addOrUpdateDate(date);
+        return true;
+    }
+
+    // Like updateDate, but only while the published version is still the expected one. Lets a caller fill in
+    // the new values from a snapshot without holding the lock, and find out if the snapshot went stale.
+    public synchronized UpdateResult updateDateIfVersion(long expectedVersion, long id, String name, int month,
+            int day, String type, boolean stickied) {
+        if (!datesById.containsKey(id)) {
+            return UpdateResult.NO_SUCH_DATE;
+        }
+        if (version != expectedVersion) {
+            return UpdateResult.VERSION_CHANGED;
+        }
+        updateDate(id, name, month, day, type, stickied);
+        return UpdateResult.UPDATED;
+    }
+
+    // Moves the date with the given id on or off the top, returns false if there is no such date
+    public synchronized boolean setStickied(long id, boolean stickied) {
+        Date current = datesById.get(id);
+        if (current == null) {
+            return false;
+        }
+        rememberForUndo(id);
+        int oldPosition = positionOf(current);
+        Date date = current.copy();
+        date.setStickied(stickied);
+        datesById.put(id, date);
+        indexDate(date);
+        recordChange(FileDatabaseHelper.JOURNAL_UPDATE, date, oldPosition);
+        return true;
+    }
+
+    // Returns the date with the given id, or null if there is none
+    public Date getDateById(long id) {
+        return snapshot.get().getDateById(id);
+    }
+
+    // Like getDateById, but also sees changes of a batch that is still being made
+    synchronized Date findDateById(long id) {
+        return datesById.get(id);
+    }
+
+    // Adds a custom type to the customTypes set
+    public synchronized void addCustomType(String type) {
+        String normalized = type.toLowerCase();
+        if (!customTypes.add(normalized)) {
+            return;
+        }
+        tagIndex.intern(normalized);
+        if (batch != null) {
+            batch.undoLog.add(() -> customTypes.remove(normalized));
+            batch.addedTypes.add(normalized);
+            batch.addEvent(DateChangeEvent.typeAdded(normalized));
+        } else {
+            DateChangeEvent event = DateChangeEvent.typeAdded(normalized);
+            event.setVersion(publishSnapshot());
+            persister.recordTypeAdded(normalized);
+            fireChange(event);
+        }
+    }
+
+    // Returns all custom types, read only
+    public Set<String> getCustomTypes() {
+        return snapshot.get().getCustomTypes();
+    }
+
+    // Returns all dates of the passed in type
+    public synchronized List<Date> getDatesOfType(String type) {
+        long start = System.nanoTime();
+        List<Date> dates = typeIndex.getDates(type);
+        DateTrackerMetrics.FILTER.recordSince(start);
+        return dates;
+    }
+
+    // Returns the dates whose tags answer the query, in the correct order
+    public synchronized List<Date> getDatesMatching(TagQuery query) {
+        long start = System.nanoTime();
+        List<Date> dates = tagIndex.getDates(query);
+        DateTrackerMetrics.FILTER.recordSince(start);
+        return dates;
+    }
+
+    // Returns the dates whose tags answer the query occurring from today up to and including the given number
+    // of days from today
+    public synchronized List<Date> getUpcoming(int days, TagQuery query) {
+        LocalDate today = dayRollover.getToday();
+        if (days < 0) {
+            return new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        List<Date> dates = days >= 365 ? tagIndex.getDates(query)
+                : tagIndex.getDatesBetween(query, MonthDay.from(today), MonthDay.from(today.plusDays(days)));
+        DateTrackerMetrics.FILTER.recordSince(start);
+        return dates;
+    }
+
+    // Returns all dates in the correct order, read only and without copying
+    public List<Date> getAllDates() {
+        return snapshot.get().getAllDates();
+    }
+
+    // Returns the latest published state, which never changes and can be read from any thread
+    public DateSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    // Returns a live read only view of all dates in the correct order, nothing is copied.
+    // Live views follow the indexes as they change, so only read them while holding the DateManager lock
+    // or on the only thread making changes, other threads should use getSnapshot().
+    public List<Date> getOrderedView() {
+        return new OrderedDateView(() -> stickiedDates, () -> unstickiedDates);
+    }
+
+    // Returns a live read only view of the dates of the passed in type in the correct order
+    public List<Date> getOrderedView(String type) {
+        return typeIndex.getView(type);
+    }
+
+    // Returns the dates occurring from today up to and including the given number of days from today
+    public synchronized List<Date> getUpcoming(int days) {
+        LocalDate today = dayRollover.getToday();
+        if (days < 0) {
+            return new ArrayList<>();
+        }
+        if (days >= 365) {
+            return getAllDates();
+        }
+        return getBetween(MonthDay.from(today), MonthDay.from(today.plusDays(days)));
+    }
+
+    // Returns the dates of the type occurring from today up to and including the given number of days from today
+    public synchronized List<Date> getUpcoming(int days, String type) {
+        LocalDate today = dayRollover.getToday();
+        if (days < 0) {
+            return new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        List<Date> dates = days >= 365 ? typeIndex.getDates(type)
+                : typeIndex.getDatesBetween(type, MonthDay.from(today), MonthDay.from(today.plusDays(days)));
+        DateTrackerMetrics.FILTER.recordSince(start);
+        return dates;
+    }
+
+    // Returns the dates from one day up to and including another, wrapping around the end of the year
+    public synchronized List<Date> getBetween(MonthDay from, MonthDay to) {
+        long start = System.nanoTime();
+        List<Date> dates = new ArrayList<>();
+        stickiedDates.collectBetween(from, to, dates);
+        unstickiedDates.collectBetween(from, to, dates);
+        DateTrackerMetrics.FILTER.recordSince(start);
+        return dates;
+    }
+
+    // Returns every date on the given day, stickied dates first
+    public List<Date> getDatesOn(MonthDay day) {
+        return getDatesOn(day.getMonthValue(), day.getDayOfMonth());
+    }
+
+    public synchronized List<Date> getDatesOn(int month, int day) {
+        long start = System.nanoTime();
+        List<Date> dates = new ArrayList<>();
+        if (DayOfYearIndex.isValidDay(month, day)) {
+            int slot = DayOfYearIndex.slotOf(month, day);
+            stickiedDates.collectOn(slot, dates);
+            unstickiedDates.collectOn(slot, dates);
+        }
+        DateTrackerMetrics.FILTER.recordSince(start);
+        return dates;
+    }
+
+    // Method to find a date by its string representation (e.g., "mm/dd")
+    public Date findDateByString(String dateString) {
+        List<Date> dates = findDatesByString(dateString);
+        return dates.isEmpty() ? null : dates.get(0); // null if date not found
+    }
+
+    // Returns every date on the day written as "mm/dd", the string is parsed once and not copied
+    public List<Date> findDatesByString(String dateString) {
+        int slash = dateString.indexOf('/');
+        if (slash <= 0 || slash == dateString.length() - 1) {
+            return new ArrayList<>();
+        }
+        try {
+            int month = Integer.parseInt(dateString, 0, slash, 10);
+            int day = Integer.parseInt(dateString, slash + 1, dateString.length(), 10);
+            return getDatesOn(month, day);
+        } catch (NumberFormatException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    public List<Date> getStickiedDates() {
+        return snapshot.get().getStickiedDates();
+    }
+
+    public List<Date> getUnstickiedDates() {
+        return snapshot.get().getUnstickiedDates();
+    }
+
+    // Stickied dates first, then by date, which is the order both indexes already keep
+    public List<Date> getSortedDates() {
+        return getAllDates();
+    }
+
+    // Removes a given date regardless of the list they are in
+    public synchronized void removeDate(Date date) {
+        removeDateById(date.getId());
+    }
+
+    // Removes the date with the given id, returns false if there is no such date
+    public synchronized boolean removeDateById(long id) {
+        if (!datesById.containsKey(id)) {
+            return false;
+        }
+        rememberForUndo(id);
+        Date date = datesById.remove(id);
+        int oldPosition = positionOf(date);
+        unindexDate(date);
+        recordChange(FileDatabaseHelper.JOURNAL_DELETE, date, oldPosition);
+        return true;
+    }
+
+    // Applies many changes at once. They are written to disk together and listeners get one notification.
+    // If the edits throw, every change made so far is undone and the exception is passed on.
+    public synchronized void batch(Consumer<BatchEditor> edits) {
+        BatchEditor editor = new BatchEditor(this);
+        if (batch != null) {
+            edits.accept(editor); // already inside a batch, which commits or rolls back as a whole
+            return;
+        }
+        batch = new Batch(nextId, tagIndex.getTagCount());
+        Batch current = batch;
+        try {
+            edits.accept(editor);
+        } catch (RuntimeException | Error e) {
+            batch = null;
+            rollBack(current);
+            throw e;
+        } finally {
+            batch = null;
+        }
+        commit(current);
+    }
+
+    // Persists the change and tells listeners, or keeps both for the end of the batch
+    private void recordChange(byte recordType, Date date, int oldPosition) {
+        int newPosition = recordType == FileDatabaseHelper.JOURNAL_DELETE ? DateChangeEvent.NO_POSITION
+                : positionOf(date);
+        DateChangeEvent event = DateChangeEvent.forDate(date, oldPosition, newPosition);
+        if (batch == null) {
+            // Published before the persister sees it, so a snapshot written later always includes the change
+            event.setVersion(publishSnapshot());
+            persister.recordDateChange(recordType, date);
+            DateTrackerMetrics.mutated(1);
+            fireChange(event);
+            return;
+        }
+        batch.changedDates.put(date.getId(), date);
+        batch.recordTypes.put(date.getId(), recordType);
+        batch.addEvent(event);
+    }
+
+    // Inside a batch, remembers how to put the date with the given id back the way it is now
+    private void rememberForUndo(long id) {
+        if (batch == null) {
+            return;
+        }
+        Date current = datesById.get(id);
+        if (current == null) {
+            batch.undoLog.add(() -> {
+                Date added = datesById.remove(id);
+                if (added != null) {
+                    unindexDate(added);
+                }
+            });
+            return;
+        }
+        // Changes replace the date instead of changing it, so the current object is the state to go back to.
+        // It may be part of a published snapshot and is put back as it is, never changed.
+        batch.undoLog.add(() -> {
+            datesById.put(id, current);
+            indexDate(current);
+        });
+    }
+
+    // Undoes the changes of a failed batch, newest first
+    private void rollBack(Batch failed) {
+        for (int i = failed.undoLog.size() - 1; i >= 0; i--) {
+            failed.undoLog.get(i).run();
+        }
+        nextId = failed.firstUnusedId;
+        // Every date is back the way it was, so no date has the tags first seen inside the batch any more
+        tagIndex.forgetTagsFrom(failed.firstUnusedTag);
+    }
+
+    // Hands every change of the batch to the persister at once and sends a single notification
+    private void commit(Batch done) {
+        long committedVersion = publishSnapshot();
+        // Holding the persister lock keeps a flush from writing only part of the batch
+        synchronized (persister) {
+            for (String type : done.addedTypes) {
+                persister.recordTypeAdded(type);
+            }
+            for (Map.Entry<Long, Date> entry : done.changedDates.entrySet()) {
+                persister.recordDateChange(done.recordTypes.get(entry.getKey()), entry.getValue());
+            }
+        }
+        DateTrackerMetrics.mutated(done.changedDates.size());
+        if (done.events == null) {
+            DateChangeEvent event = DateChangeEvent.bulkChange();
+            event.setVersion(committedVersion);
+            fireChange(event);
+        } else if (!done.events.isEmpty()) {
+            for (DateChangeEvent event : done.events) {
+                event.setVersion(committedVersion);
+            }
+            fireChanges(done.events);
+        }
+    }
+
+    // Registers a listener that is told about every change right away, on the thread that made it
+    public void addDateUpdateListener(DateUpdateListener listener) {
+        listeners.add(new Subscription(listener, null));
+    }
+
+    // Registers a listener that gets each burst of changes as one notification, run by the executor.
+    // Passing SwingUtilities::invokeLater delivers at most once per EDT cycle.
+    public void addDateUpdateListener(DateUpdateListener listener, Executor executor) {
+        listeners.add(new Subscription(listener, executor));
+    }
+
+    public void removeDateUpdateListener(DateUpdateListener listener) {
+        listeners.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    // Position of the date in the ordered view, only worked out when someone is listening
+    private int positionOf(Date date) {
+        if (listeners.isEmpty() || batch != null && batch.events == null) {
+            return DateChangeEvent.NO_POSITION;
+        }
+        return orderedView.indexOf(date);
+    }
+
+    private void fireChange(DateChangeEvent event) {
+        fireChanges(List.of(event));
+    }
+
+    private void fireChanges(List<DateChangeEvent> events) {
+        for (Subscription subscription : listeners) {
+            subscription.deliver(events);
+        }
+    }
+
+    // Save changes to the database as a full snapshot, waits until it is written
+    public void saveDates() {
+        persister.saveSnapshot();
+    }
+
+    // Writes any changes that are still pending, waits until they are written
+    public void flush() {
+        persister.flush();
+    }
+
+    // Days from today until the next occurrence of the date, without reading the clock
+    public long daysUntil(Date date) {
+        return dayRollover.daysUntil(date);
+    }
+
+    // Gives access to today and the midnight rollover
+    public DayRolloverService getDayRollover() {
+        return dayRollover;
+    }
+
+    // How long the constructor took to load, index and start everything, in milliseconds
+    public double getLoadTimeMillis() {
+        return loadTimeNanos / 1_000_000.0;
+    }
+
+    // Gives access to the pending write count and flush latency
+    public WriteBehindPersister getPersister() {
+        return persister;
+    }
+
+    // Flushes pending changes, stops the background writer and lets another DateManager open the files
+    public void close() {
+        dayRollover.stop();
+        persister.close();
+        DateTrackerMetrics.untrack(this);
+        FileDatabaseHelper.unlockDataFolder(folderLock);
+    }
+
+    // Makes the current state visible to readers, returns its version.
+    // Reading the indexes out in order is the sorting that is left, so it is timed as the sort.
+    // Only the days and ids changed since the last snapshot are copied, the rest is shared with it.
+    private long publishSnapshot() {
+        long start = System.nanoTime();
+        snapshot.set(new DateSnapshot(++version, stickiedDates, unstickiedDates, customTypes, datesById,
+                unpublishedIds, snapshot.get()));
+        unpublishedIds = new HashSet<>(); // clear() would walk a table grown by a large batch every time
+        DateTrackerMetrics.SORT.recordSince(start);
+        return version;
+    }
+
+    // The published snapshot never changes, so the background writer needs neither the lock nor a copy
+    private WriteBehindPersister.State captureState() {
+        DateSnapshot current = snapshot.get();
+        return new WriteBehindPersister.State(current.getStickiedDates(), current.getUnstickiedDates(),
+                current.getCustomTypes());
+    }
+}
@@ -0,0 +1,120 @@
+//The dates and types of a DateManager at one version, never changed after it is published so any thread can read it
+
+package core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DateSnapshot {
+    // Dates by id are split into this many chunks, picked by the top bits of the id times a large odd number.
+    // Taking the low bits instead would leave every id of a chunk in the same bucket of the chunk's own map.
+    private static final int ID_CHUNK_BITS = 12;
+    private static final int ID_CHUNKS = 1 << ID_CHUNK_BITS;
+
+    private final long version;
+    private final List<Date> stickiedDates;
+    private final List<Date> unstickiedDates;
+    private final List<Date> allDates;
+    private final Set<String> customTypes;
+    private final Map<Long, Date>[] datesById;
+
+    // Shares everything that did not change with the previous snapshot, which is null for the first one.
+    // The lists reuse the bucket arrays of every day nobody edited and only the id chunks holding changedIds
+    // are copied, so publishing after one edit costs about one day's dates and one chunk instead of every date.
+    // The dates themselves are shared because the DateManager replaces a date instead of changing it.
+    DateSnapshot(long version, DayOfYearIndex stickiedDates, DayOfYearIndex unstickiedDates,
+            Collection<String> customTypes, Map<Long, Date> currentDates, Collection<Long> changedIds,
+            DateSnapshot previous) {
+        this.version = version;
+        FrozenDateList stickied = stickiedDates.freeze();
+        FrozenDateList unstickied = unstickiedDates.freeze();
+        this.stickiedDates = stickied;
+        this.unstickiedDates = unstickied;
+        this.allDates = FrozenDateList.concat(stickied, unstickied);
+        // Types are only ever added, so the same number means the same types
+        this.customTypes = previous != null && previous.customTypes.size() == customTypes.size()
+                ? previous.customTypes : Set.copyOf(customTypes);
+        this.datesById = previous == null ? chunk(currentDates.values())
+                : rechunk(previous.datesById, currentDates, changedIds);
+    }
+
+    private static int chunkOf(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> (64 - ID_CHUNK_BITS));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<Long, Date>[] newChunks() {
+        return new Map[ID_CHUNKS];
+    }
+
+    // Puts every date into its chunk
+    private static Map<Long, Date>[] chunk(Collection<Date> dates) {
+        Map<Long, Date>[] chunks = newChunks();
+        for (Date date : dates) {
+            int chunk = chunkOf(date.getId());
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new HashMap<>();
+            }
+            chunks[chunk].put(date.getId(), date);
+        }
+        return chunks;
+    }
+
+    // Copies each chunk holding a changed id once and brings those ids up to date, the rest are shared
+    private static Map<Long, Date>[] rechunk(Map<Long, Date>[] previous, Map<Long, Date> currentDates,
+            Collection<Long> changedIds) {
+        if (changedIds.isEmpty()) {
+            return previous;
+        }
+        Map<Long, Date>[] chunks = previous.clone();
+        boolean[] copied = new boolean[ID_CHUNKS];
+        for (long id : changedIds) {
+            int chunk = chunkOf(id);
+            if (!copied[chunk]) {
+                chunks[chunk] = previous[chunk] == null ? new HashMap<>() : new HashMap<>(previous[chunk]);
+                copied[chunk] = true;
+            }
+            Date date = currentDates.get(id);
+            if (date == null) {
+                chunks[chunk].remove(id);
+            } else {
+                chunks[chunk].put(id, date);
+            }
+        }
+        return chunks;
+    }
+
+    // Goes up by one every time the DateManager publishes a change
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Date> getStickiedDates() {
+        return stickiedDates;
+    }
+
+    public List<Date> getUnstickiedDates() {
+        return unstickiedDates;
+    }
+
+    // Stickied dates first, each part in order of next occurrence
+    public List<Date> getAllDates() {
+        return allDates;
+    }
+
+    public Set<String> getCustomTypes() {
+        return customTypes;
+    }
+
+    public Date getDateById(long id) {
+        Map<Long, Date> chunk = datesById[chunkOf(id)];
+        return chunk == null ? null : chunk.get(id);
+    }
+
+    public int size() {
+        return allDates.size();
+    }
+}
@@ -0,0 +1,270 @@
+//Times loading, saving, sorting and filtering and counts changes, for JConsole and an optional periodic log line
+
+package core;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class DateTrackerMetrics implements DateTrackerMetricsMBean {
+    public static final String OBJECT_NAME = "datetracker:type=DateTrackerMetrics";
+    // Seconds between log lines, no line is written unless it is set
+    public static final String LOG_INTERVAL_PROPERTY = "datetracker.metrics.log";
+
+    // Recording is a couple of atomic adds, so it is always on
+    public static final LatencyHistogram LOAD = new LatencyHistogram();
+    public static final LatencyHistogram SAVE = new LatencyHistogram();
+    public static final LatencyHistogram SORT = new LatencyHistogram();
+    public static final LatencyHistogram FILTER = new LatencyHistogram();
+    private static final LongAdder mutations = new LongAdder();
+    private static final LongAdder bytesWritten = new LongAdder();
+
+    private static final DateTrackerMetrics INSTANCE = new DateTrackerMetrics();
+    private static volatile DateManager dateManager; // the one dataset size and pending writes are read from
+    private static ScheduledExecutorService logger;
+
+    private DateTrackerMetrics() {
+    }
+
+    public static void mutated(int count) {
+        mutations.add(count);
+    }
+
+    public static void bytesWritten(long count) {
+        bytesWritten.add(count);
+    }
+
+    // Called by every DateManager once it is loaded, the latest one is the one reported on
+    static synchronized void track(DateManager manager) {
+        dateManager = manager;
+    }
+
+    static synchronized void untrack(DateManager manager) {
+        if (dateManager == manager) {
+            dateManager = null;
+        }
+    }
+
+    // Makes the metrics visible to JMX clients and starts the log line if the interval property is set.
+    // Calling it again does nothing.
+    public static synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering metrics: " + e.getMessage());
+        }
+        String interval = System.getProperty(LOG_INTERVAL_PROPERTY);
+        if (interval != null) {
+            try {
+                startLogging(Long.parseLong(interval));
+            } catch (NumberFormatException e) {
+                System.err.println(LOG_INTERVAL_PROPERTY + " must be a number of seconds: " + interval);
+            }
+        }
+    }
+
+    // Prints the summary every given number of seconds on a background thread, until the JVM exits
+    public static synchronized void startLogging(long intervalSeconds) {
+        if (logger != null || intervalSeconds <= 0) {
+            return;
+        }
+        logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "date-metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> System.out.println(INSTANCE.summary()), intervalSeconds, intervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    // Prints the startup line once, only when the periodic log line was turned on with the interval property
+    public static synchronized void logStartup() {
+        if (logger != null) {
+            System.out.println(StartupMetrics.summary());
+        }
+    }
+
+    public static DateTrackerMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return LOAD.getCount();
+    }
+
+    @Override
+    public double getLoadMeanMillis() {
+        return LOAD.getMeanMillis();
+    }
+
+    @Override
+    public double getLoadMaxMillis() {
+        return LOAD.getMaxMillis();
+    }
+
+    @Override
+    public long getSaveCount() {
+        return SAVE.getCount();
+    }
+
+    @Override
+    public double getSaveMeanMillis() {
+        return SAVE.getMeanMillis();
+    }
+
+    @Override
+    public double getSaveP50Millis() {
+        return SAVE.getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double getSaveP99Millis() {
+        return SAVE.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getSaveMaxMillis() {
+        return SAVE.getMaxMillis();
+    }
+
+    @Override
+    public long getSortCount() {
+        return SORT.getCount();
+    }
+
+    @Override
+    public double getSortMeanMillis() {
+        return SORT.getMeanMillis();
+    }
+
+    @Override
+    public double getSortP50Millis() {
+        return SORT.getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double getSortP99Millis() {
+        return SORT.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getSortMaxMillis() {
+        return SORT.getMaxMillis();
+    }
+
+    @Override
+    public long getFilterCount() {
+        return FILTER.getCount();
+    }
+
+    @Override
+    public double getFilterMeanMillis() {
+        return FILTER.getMeanMillis();
+    }
+
+    @Override
+    public double getFilterP50Millis() {
+        return FILTER.getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double getFilterP99Millis() {
+        return FILTER.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getFilterMaxMillis() {
+        return FILTER.getMaxMillis();
+    }
+
+    @Override
+    public long getMutationCount() {
+        return mutations.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public int getDatasetSize() {
+        DateManager manager = dateManager;
+        return manager == null ? 0 : manager.getSnapshot().size();
+    }
+
+    // Counted from the published snapshot, so reading it never waits for the DateManager lock
+    @Override
+    public Map<String, Integer> getDatesPerType() {
+        Map<String, Integer> counts = new TreeMap<>();
+        DateManager manager = dateManager;
+        if (manager != null) {
+            for (Date date : manager.getAllDates()) {
+                counts.merge(date.getType() == null ? "(none)" : date.getType().toLowerCase(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public double getTimeToFirstRowMillis() {
+        return StartupMetrics.getTimeToFirstRowMillis();
+    }
+
+    @Override
+    public double getTimeToLoadedMillis() {
+        return StartupMetrics.getTimeToLoadedMillis();
+    }
+
+    @Override
+    public double getLoadTimeMillis() {
+        DateManager manager = dateManager;
+        return manager == null ? -1 : manager.getLoadTimeMillis();
+    }
+
+    @Override
+    public int getPendingWriteCount() {
+        DateManager manager = dateManager;
+        return manager == null ? 0 : manager.getPersister().getPendingWriteCount();
+    }
+
+    @Override
+    public double getLastFlushLatencyMillis() {
+        DateManager manager = dateManager;
+        return manager == null ? 0 : manager.getPersister().getLastFlushLatencyMillis();
+    }
+
+    @Override
+    public void reset() {
+        LOAD.reset();
+        SAVE.reset();
+        SORT.reset();
+        FILTER.reset();
+        mutations.reset();
+        bytesWritten.reset();
+    }
+
+    // One line for the log
+    @Override
+    public String summary() {
+        return String.format("Metrics: %d dates, %d changes, %d bytes written, load %.1f ms, "
+                + "save %d p50 %.3f p99 %.3f ms, sort %d p50 %.3f p99 %.3f ms, filter %d p50 %.3f p99 %.3f ms",
+                getDatasetSize(), getMutationCount(), getBytesWritten(), getLoadTimeMillis(),
+                getSaveCount(), getSaveP50Millis(), getSaveP99Millis(),
+                getSortCount(), getSortP50Millis(), getSortP99Millis(),
+                getFilterCount(), getFilterP50Millis(), getFilterP99Millis());
+    }
+}
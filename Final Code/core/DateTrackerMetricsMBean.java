@@ -0,0 +1,75 @@
+//What JConsole and other JMX clients see of the DateTrackerMetrics, times are in milliseconds
+
+package core;
+
+import java.util.Map;
+
+public interface DateTrackerMetricsMBean {
+    // Loading every date when a DateManager starts
+    long getLoadCount();
+
+    double getLoadMeanMillis();
+
+    double getLoadMaxMillis();
+
+    // Writing pending changes to disk, a journal append or a full snapshot
+    long getSaveCount();
+
+    double getSaveMeanMillis();
+
+    double getSaveP50Millis();
+
+    double getSaveP99Millis();
+
+    double getSaveMaxMillis();
+
+    // Putting the dates in order after a change, which publishes the new snapshot
+    long getSortCount();
+
+    double getSortMeanMillis();
+
+    double getSortP50Millis();
+
+    double getSortP99Millis();
+
+    double getSortMaxMillis();
+
+    // Type, tag, day and upcoming queries
+    long getFilterCount();
+
+    double getFilterMeanMillis();
+
+    double getFilterP50Millis();
+
+    double getFilterP99Millis();
+
+    double getFilterMaxMillis();
+
+    // Dates added, updated or removed
+    long getMutationCount();
+
+    // Bytes written to the dat files, the journal and the archive
+    long getBytesWritten();
+
+    int getDatasetSize();
+
+    // Number of dates of each type
+    Map<String, Integer> getDatesPerType();
+
+    // From StartupMetrics and the DateManager that was loaded last
+    double getTimeToFirstRowMillis();
+
+    double getTimeToLoadedMillis();
+
+    double getLoadTimeMillis();
+
+    int getPendingWriteCount();
+
+    double getLastFlushLatencyMillis();
+
+    // Starts every histogram and counter from zero
+    void reset();
+
+    // The line written to the log
+    String summary();
+}
@@ -0,0 +1,13 @@
+package core;
+
+import java.util.List;
+
+public interface DateUpdateListener {
+    void onDateUpdated();
+
+    // Receives the changes one by one, or a whole burst at once when registered for batched delivery.
+    // Positions are in order, each one is valid right after the changes before it.
+    default void onDatesChanged(List<DateChangeEvent> events) {
+        onDateUpdated();
+    }
+}
@@ -0,0 +1,60 @@
+//A read-only date whose fields live somewhere else, such as a mapped file or the columns of a store
+
+package core;
+
+import java.time.MonthDay;
+import java.util.Collection;
+
+public abstract class DateView extends Date {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public abstract long getId();
+
+    @Override
+    public abstract String getName();
+
+    @Override
+    public abstract MonthDay getDay();
+
+    @Override
+    public abstract String getType();
+
+    @Override
+    public abstract boolean isStickied();
+
+    @Override
+    public void setId(long id) {
+        throw new UnsupportedOperationException("date views are read-only");
+    }
+
+    @Override
+    public void setName(String name) {
+        throw new UnsupportedOperationException("date views are read-only");
+    }
+
+    @Override
+    public void setDay(int month, int day) {
+        throw new UnsupportedOperationException("date views are read-only");
+    }
+
+    @Override
+    public void setType(String type) {
+        throw new UnsupportedOperationException("date views are read-only");
+    }
+
+    @Override
+    public void setStickied(boolean stickied) {
+        throw new UnsupportedOperationException("date views are read-only");
+    }
+
+    @Override
+    public void setExtraTags(Collection<String> tags) {
+        throw new UnsupportedOperationException("date views are read-only");
+    }
+
+    // A view is never serialized as a view, only as the plain date it shows
+    protected Object writeReplace() {
+        return copy();
+    }
+}
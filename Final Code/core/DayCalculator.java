@@ -0,0 +1,327 @@
+//Counts days between calendar days in bulk, parsing yyyy/MM/dd straight to epoch days without making objects
+
+package core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class DayCalculator {
+    public static final String PATTERN = "yyyy/MM/dd";
+    // Formatters are immutable, so one is made for everyone instead of one per click
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern(PATTERN);
+    // Returned instead of a day or a count when the text is not a day
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // Below this many dates or lines a chunk is worked through on the calling thread
+    private static final int CHUNK_SIZE = 8192;
+    private static final int READ_BUFFER_SIZE = 1 << 20; // characters read from the input at a time
+    private static final char[] INVALID_OUTPUT = "invalid".toCharArray();
+
+    private static final int DAYS_0000_TO_1970 = 719468; // days from Mar 1 of year 0 to Jan 1 1970
+
+    private DayCalculator() {
+    }
+
+    // Parses yyyy/MM/dd, returns the epoch day or INVALID
+    public static long parseEpochDay(CharSequence text) {
+        return parseEpochDay(text, 0, text.length());
+    }
+
+    // Parses the characters from start up to end, spaces around the day are ignored. Accepts what FORMAT
+    // accepts: four digit years from 1, and days up to 31 that are moved back to the end of shorter months.
+    public static long parseEpochDay(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start != PATTERN.length() || text.charAt(start + 4) != '/' || text.charAt(start + 7) != '/') {
+            return INVALID;
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return INVALID;
+        }
+        return epochDay(year, month, Math.min(day, lengthOfMonth(year, month)));
+    }
+
+    // Reads count decimal digits, negative if any of them is not a digit
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        return month == 2 ? (DayOfYearIndex.isLeapYear(year) ? 29 : 28) : month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // Epoch day of a valid day, the same as LocalDate.of(year, month, day).toEpochDay(). Counting years from
+    // March puts the leap day last, so every month before it has a fixed length.
+    public static long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        int monthFromMarch = month > 2 ? month - 3 : month + 9;
+        long dayOfYear = (153 * monthFromMarch + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    // Year of an epoch day, the inverse of epochDay without making a LocalDate
+    public static int yearOf(long epochDay) {
+        long shifted = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(shifted, 146097);
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthFromMarch = (5 * dayOfYear + 2) / 153;
+        return (int) (yearOfEra + era * 400 + (monthFromMarch >= 10 ? 1 : 0)); // January and February end the year
+    }
+
+    // Days between two days written as yyyy/MM/dd in either order, INVALID if either is not a day
+    public static long daysBetween(CharSequence first, CharSequence second) {
+        long firstDay = parseEpochDay(first);
+        long secondDay = parseEpochDay(second);
+        return firstDay == INVALID || secondDay == INVALID ? INVALID : Math.abs(secondDay - firstDay);
+    }
+
+    // Days from the anchor until the next occurrence of each date on or after it, in the order of the list.
+    // Large lists are split in chunks that run on the common fork/join pool.
+    public static long[] daysUntil(LocalDate anchor, List<Date> dates) {
+        long[] days = new long[dates.size()];
+        int anchorYear = anchor.getYear();
+        long anchorDay = anchor.toEpochDay();
+        inChunks(days.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Date date = dates.get(i);
+                int month = date.getDay().getMonthValue();
+                int day = date.getDay().getDayOfMonth();
+                long occurrence = occurrence(anchorYear, month, day);
+                if (occurrence < anchorDay) {
+                    occurrence = occurrence(anchorYear + 1, month, day);
+                }
+                days[i] = occurrence - anchorDay;
+            }
+        });
+        return days;
+    }
+
+    // Feb 29 falls on Feb 28 outside leap years, like MonthDay.atYear does
+    private static long occurrence(long year, int month, int day) {
+        return epochDay(year, month, Math.min(day, lengthOfMonth(year, month)));
+    }
+
+    // Work on the indexes from one up to another
+    private interface Range {
+        void compute(int from, int to);
+    }
+
+    // Runs the work on every index below size, in parallel chunks when there is more than one chunk
+    private static void inChunks(int size, Range work) {
+        if (size <= CHUNK_SIZE) {
+            work.compute(0, size);
+        } else {
+            ForkJoinPool.commonPool().invoke(new Chunk(work, 0, size));
+        }
+    }
+
+    // Splits a range of indexes in half until it is one chunk, then computes it
+    private static class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Range work;
+        private final int from;
+        private final int to;
+
+        Chunk(Range work, int from, int to) {
+            this.work = work;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                work.compute(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Chunk(work, from, middle), new Chunk(work, middle, to));
+        }
+    }
+
+    // How many lines a streaming run read and how many of them were not two days
+    public static class Result {
+        private final long lines;
+        private final long invalid;
+
+        Result(long lines, long invalid) {
+            this.lines = lines;
+            this.invalid = invalid;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        @Override
+        public String toString() {
+            return lines + " lines, " + invalid + " invalid";
+        }
+    }
+
+    // Reads lines of two days separated by a comma, tab or space and writes the days between them, one line
+    // for each line read, "invalid" for lines that are not two days. Input is read a block at a time and every
+    // block is parsed in parallel chunks, so millions of lines take little more memory than one block.
+    public static Result process(Reader in, Writer out) throws IOException {
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int[] lineStarts = new int[READ_BUFFER_SIZE / 16];
+        long[] results = new long[lineStarts.length];
+        char[] output = new char[READ_BUFFER_SIZE];
+        int length = 0;
+        long lines = 0;
+        long invalid = 0;
+        boolean endOfInput = false;
+        while (!endOfInput || length > 0) {
+            // Fill the buffer, growing it if a single line does not fit
+            if (!endOfInput) {
+                int read = in.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    length += read;
+                }
+            }
+            int end = length; // the lines to work on end here, the rest waits for more input
+            if (!endOfInput) {
+                while (end > 0 && buffer[end - 1] != '\n') {
+                    end--;
+                }
+                if (end == 0) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    continue;
+                }
+            } else if (end == 0) {
+                break;
+            }
+
+            // Find the lines, then parse them all in parallel
+            int lineCount = 0;
+            for (int position = 0; position < end; ) {
+                if (lineCount + 1 >= lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+                    results = Arrays.copyOf(results, lineStarts.length);
+                }
+                lineStarts[lineCount++] = position;
+                while (position < end && buffer[position] != '\n') {
+                    position++;
+                }
+                position++; // past the line break
+            }
+            lineStarts[lineCount] = end;
+            CharSequence text = CharBuffer.wrap(buffer, 0, end);
+            int[] starts = lineStarts;
+            long[] days = results;
+            inChunks(lineCount, (from, to) -> {
+                for (int line = from; line < to; line++) {
+                    days[line] = parseLine(text, starts[line], starts[line + 1]);
+                }
+            });
+
+            // Write the answers in input order
+            int outputLength = 0;
+            for (int line = 0; line < lineCount; line++) {
+                if (output.length - outputLength < 21) {
+                    out.write(output, 0, outputLength);
+                    outputLength = 0;
+                }
+                if (days[line] == INVALID) {
+                    System.arraycopy(INVALID_OUTPUT, 0, output, outputLength, INVALID_OUTPUT.length);
+                    outputLength += INVALID_OUTPUT.length;
+                    invalid++;
+                } else {
+                    outputLength = appendNumber(output, outputLength, days[line]);
+                }
+                output[outputLength++] = '\n';
+            }
+            out.write(output, 0, outputLength);
+            lines += lineCount;
+
+            System.arraycopy(buffer, end, buffer, 0, length - end);
+            length -= end;
+        }
+        out.flush();
+        return new Result(lines, invalid);
+    }
+
+    // Days between the two days on one line, the line break and a carriage return before it are left out
+    private static long parseLine(CharSequence text, int start, int end) {
+        if (end > start && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        int separator = indexOf(text, start, end, ',', '\t');
+        if (separator < 0) {
+            // Only spaces, the first one after the first day has started
+            int dayStart = start;
+            while (dayStart < end && text.charAt(dayStart) == ' ') {
+                dayStart++;
+            }
+            separator = indexOf(text, dayStart, end, ' ', ' ');
+        }
+        if (separator < 0) {
+            return INVALID;
+        }
+        long first = parseEpochDay(text, start, separator);
+        long second = parseEpochDay(text, separator + 1, end);
+        return first == INVALID || second == INVALID ? INVALID : Math.abs(second - first);
+    }
+
+    private static int indexOf(CharSequence text, int start, int end, char one, char other) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == one || text.charAt(i) == other) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Writes a count that is never negative as decimal digits, returns the new length
+    private static int appendNumber(char[] output, int length, long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            output[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return length + digits;
+    }
+}
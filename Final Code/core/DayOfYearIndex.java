@@ -0,0 +1,278 @@
+//Keeps dates in order of their next occurrence using one bucket per day of the year
+
+package core;
+
+import java.time.MonthDay;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public class DayOfYearIndex extends AbstractCollection<Date> {
+    public static final int DAYS_IN_YEAR = 366; // Feb 29 gets its own bucket
+
+    // Number of days before the first of each month in a leap year
+    private static final int[] MONTH_OFFSETS = { 0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335 };
+    private static final MonthDay[] DAYS = new MonthDay[DAYS_IN_YEAR];
+    static final int FEB_29_SLOT = slotOf(2, 29);
+
+    static {
+        for (int month = 1; month <= 12; month++) {
+            int length = (month == 12 ? DAYS_IN_YEAR : MONTH_OFFSETS[month]) - MONTH_OFFSETS[month - 1];
+            for (int day = 1; day <= length; day++) {
+                DAYS[MONTH_OFFSETS[month - 1] + day - 1] = MonthDay.of(month, day);
+            }
+        }
+    }
+
+    // Dates in each bucket keep the order they were added in, like a stable sort would
+    private final LinkedHashSet<Date>[] buckets;
+    // Set bits mark the buckets that hold dates, so range queries skip empty days a word at a time
+    private final BitSet occupied = new BitSet(DAYS_IN_YEAR);
+    // Running bucket sizes (a Fenwick tree) and a cached array per bucket give positional access
+    private final int[] countTree = new int[DAYS_IN_YEAR + 1];
+    private final Date[][] bucketArrays = new Date[DAYS_IN_YEAR][];
+    // Remembers the bucket of each date, so it can be found even after the date was edited in place
+    private final Map<Date, Integer> slots = new HashMap<>();
+    private int startSlot; // bucket of today, iteration starts here and wraps around
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DayOfYearIndex(MonthDay today) {
+        buckets = new LinkedHashSet[DAYS_IN_YEAR];
+        startSlot = slotOf(today);
+    }
+
+    public DayOfYearIndex(MonthDay today, Iterable<Date> dates) {
+        this(today);
+        for (Date date : dates) {
+            add(date);
+        }
+    }
+
+    // Returns the bucket of a day, 0 for Jan 1 up to 365 for Dec 31
+    public static int slotOf(MonthDay day) {
+        return slotOf(day.getMonthValue(), day.getDayOfMonth());
+    }
+
+    public static int slotOf(int month, int day) {
+        return MONTH_OFFSETS[month - 1] + day - 1;
+    }
+
+    // Returns the day of a bucket, the days are made once so callers never allocate
+    public static MonthDay dayOf(int slot) {
+        return DAYS[slot];
+    }
+
+    // Returns true if the month and day exist in a leap year
+    public static boolean isValidDay(int month, int day) {
+        if (month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        int nextMonthOffset = month == 12 ? DAYS_IN_YEAR : MONTH_OFFSETS[month];
+        return MONTH_OFFSETS[month - 1] + day <= nextMonthOffset;
+    }
+
+    // Zero based day of the year of a bucket, Feb 29 falls on Feb 28 outside leap years like MonthDay.atYear does
+    static int dayOfYear(int slot, boolean leapYear) {
+        return leapYear || slot < FEB_29_SLOT ? slot : slot - 1;
+    }
+
+    static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Moves the start of the order to the given day, the only place that depends on today
+    public void rotateTo(MonthDay today) {
+        startSlot = slotOf(today);
+    }
+
+    // Adds the date to the end of its bucket, moving it there if it was already indexed
+    @Override
+    public boolean add(Date date) {
+        remove(date);
+        int slot = slotOf(date.getDay());
+        if (buckets[slot] == null) {
+            buckets[slot] = new LinkedHashSet<>();
+        }
+        buckets[slot].add(date);
+        occupied.set(slot);
+        slots.put(date, slot);
+        bucketChanged(slot, 1);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object date) {
+        Integer slot = slots.remove(date);
+        if (slot == null) {
+            return false;
+        }
+        buckets[slot].remove(date);
+        if (buckets[slot].isEmpty()) {
+            occupied.clear(slot);
+        }
+        bucketChanged(slot, -1);
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object date) {
+        return slots.containsKey(date);
+    }
+
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < DAYS_IN_YEAR; slot++) {
+            buckets[slot] = null;
+            bucketArrays[slot] = null;
+        }
+        Arrays.fill(countTree, 0);
+        occupied.clear();
+        slots.clear();
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Adds the dates from the first day up to and including the last day to the result, in that order.
+    // Wraps around the end of the year when the first day comes after the last day.
+    public void collectBetween(MonthDay from, MonthDay to, Collection<Date> result) {
+        int fromSlot = slotOf(from);
+        int toSlot = slotOf(to);
+        if (fromSlot <= toSlot) {
+            collectSlots(fromSlot, toSlot, result);
+        } else {
+            collectSlots(fromSlot, DAYS_IN_YEAR - 1, result);
+            collectSlots(0, toSlot, result);
+        }
+    }
+
+    // Adds the dates on a single day to the result without any other allocation
+    public void collectOn(int slot, Collection<Date> result) {
+        if (occupied.get(slot)) {
+            result.addAll(buckets[slot]);
+        }
+    }
+
+    private void collectSlots(int fromSlot, int toSlot, Collection<Date> result) {
+        for (int slot = occupied.nextSetBit(fromSlot); slot >= 0 && slot <= toSlot; slot = occupied.nextSetBit(slot + 1)) {
+            result.addAll(buckets[slot]);
+        }
+    }
+
+    // Returns the date at the given position of the order, in logarithmic time plus one array lookup
+    public Date get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + size);
+        }
+        // Positions count from today's bucket, turn that into a count from Jan 1
+        int beforeStart = countBefore(startSlot);
+        int fromJanuary = position < size - beforeStart ? beforeStart + position : position - (size - beforeStart);
+
+        // Walk down the tree to the bucket holding that date
+        int slot = 0;
+        int remaining = fromJanuary;
+        for (int step = Integer.highestOneBit(DAYS_IN_YEAR); step > 0; step >>= 1) {
+            int next = slot + step;
+            if (next <= DAYS_IN_YEAR && countTree[next] <= remaining) {
+                slot = next;
+                remaining -= countTree[next];
+            }
+        }
+        return bucketArray(slot)[remaining];
+    }
+
+    // Returns the position of the date in the order, or -1 if it is not indexed
+    public int indexOf(Object date) {
+        Integer slot = slots.get(date);
+        if (slot == null) {
+            return -1;
+        }
+        Date[] bucket = bucketArray(slot);
+        int offset = 0;
+        while (!bucket[offset].equals(date)) {
+            offset++;
+        }
+        int beforeStart = countBefore(startSlot);
+        int beforeSlot = countBefore(slot);
+        int position = slot >= startSlot ? beforeSlot - beforeStart : size - beforeStart + beforeSlot;
+        return position + offset;
+    }
+
+    // Number of dates in the buckets before the given one, counting from Jan 1
+    private int countBefore(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += countTree[i];
+        }
+        return count;
+    }
+
+    private void bucketChanged(int slot, int delta) {
+        bucketArrays[slot] = null;
+        for (int i = slot + 1; i <= DAYS_IN_YEAR; i += i & -i) {
+            countTree[i] += delta;
+        }
+    }
+
+    private Date[] bucketArray(int slot) {
+        if (bucketArrays[slot] == null) {
+            bucketArrays[slot] = buckets[slot].toArray(new Date[0]);
+        }
+        return bucketArrays[slot];
+    }
+
+    // Returns the dates in order as a list that never changes. Bucket arrays are only made again for the days
+    // that changed since they were last made, every other day is shared with earlier lists.
+    FrozenDateList freeze() {
+        Date[][] parts = new Date[occupied.cardinality()][];
+        int part = 0;
+        for (int slot = occupied.nextSetBit(startSlot); slot >= 0; slot = occupied.nextSetBit(slot + 1)) {
+            parts[part++] = bucketArray(slot);
+        }
+        for (int slot = occupied.nextSetBit(0); slot >= 0 && slot < startSlot; slot = occupied.nextSetBit(slot + 1)) {
+            parts[part++] = bucketArray(slot);
+        }
+        return new FrozenDateList(parts);
+    }
+
+    // Iterates from today's bucket to the end of the year, then from Jan 1 up to yesterday
+    @Override
+    public Iterator<Date> iterator() {
+        return new Iterator<Date>() {
+            private int visited; // number of buckets started so far
+            private Iterator<Date> current = null;
+
+            @Override
+            public boolean hasNext() {
+                while (current == null || !current.hasNext()) {
+                    if (visited == DAYS_IN_YEAR) {
+                        return false;
+                    }
+                    LinkedHashSet<Date> bucket = buckets[(startSlot + visited++) % DAYS_IN_YEAR];
+                    current = bucket == null ? null : bucket.iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Date next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+//Caches today and the next occurrence of every day of the year, and moves both forward once at local midnight
+
+package core;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class DayRolloverService {
+    private final Clock clock;
+    private final List<Consumer<LocalDate>> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    // Everything below is replaced together at midnight, readers never look at the clock
+    private volatile Day day;
+
+    // Today and the epoch day of the next occurrence of each day-of-year bucket
+    private static class Day {
+        final LocalDate today;
+        final long todayEpochDay;
+        final long[] nextOccurrences = new long[DayOfYearIndex.DAYS_IN_YEAR];
+
+        // Plain arithmetic on epoch days, so no date objects are made for the 366 buckets
+        Day(LocalDate today) {
+            this.today = today;
+            this.todayEpochDay = today.toEpochDay();
+            long thisYearStart = today.withDayOfYear(1).toEpochDay();
+            long nextYearStart = today.withDayOfYear(1).plusYears(1).toEpochDay();
+            boolean thisYearLeap = DayOfYearIndex.isLeapYear(today.getYear());
+            boolean nextYearLeap = DayOfYearIndex.isLeapYear(today.getYear() + 1L);
+            for (int slot = 0; slot < DayOfYearIndex.DAYS_IN_YEAR; slot++) {
+                long occurrence = thisYearStart + DayOfYearIndex.dayOfYear(slot, thisYearLeap);
+                if (occurrence < todayEpochDay) {
+                    occurrence = nextYearStart + DayOfYearIndex.dayOfYear(slot, nextYearLeap);
+                }
+                nextOccurrences[slot] = occurrence;
+            }
+        }
+    }
+
+    public DayRolloverService(Clock clock) {
+        this.clock = clock;
+        this.day = new Day(LocalDate.now(clock));
+    }
+
+    // Starts waiting for midnight on a background thread
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "day-rollover");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNextRollover();
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Called with the new day right after midnight
+    public void addRolloverListener(Consumer<LocalDate> listener) {
+        listeners.add(listener);
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public LocalDate getToday() {
+        return day.today;
+    }
+
+    public MonthDay getTodayMonthDay() {
+        return MonthDay.from(day.today);
+    }
+
+    // Days from today until the next occurrence of the date, 0 if it is today
+    public long daysUntil(Date date) {
+        Day current = day;
+        return current.nextOccurrences[DayOfYearIndex.slotOf(date.getDay())] - current.todayEpochDay;
+    }
+
+    // Epoch day of the next occurrence of the date
+    public long nextOccurrenceEpochDay(Date date) {
+        return day.nextOccurrences[DayOfYearIndex.slotOf(date.getDay())];
+    }
+
+    // Checks the clock and rolls over if the day has changed, returns true if it did
+    public synchronized boolean checkRollover() {
+        LocalDate now = LocalDate.now(clock);
+        if (now.equals(day.today)) {
+            return false;
+        }
+        day = new Day(now);
+        for (Consumer<LocalDate> listener : listeners) {
+            listener.accept(now);
+        }
+        return true;
+    }
+
+    private synchronized void scheduleNextRollover() {
+        if (scheduler == null) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(clock.getZone());
+        long delay = Math.max(1, Duration.between(now, midnight).toMillis());
+        scheduler.schedule(() -> {
+            // A timer can fire a little early after clock adjustments, then this just waits again
+            checkRollover();
+            scheduleNextRollover();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,550 @@
+//Responsible for reading data and saving changes by interacting with 3 dat files that serve as the database
+
+package core;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+public class FileDatabaseHelper {
+    // Files for data storage
+    public static final String STICKIED_DATES_FILE = "stickied_dates.dat";
+    public static final String UNSTICKIED_DATES_FILE = "unstickied_dates.dat";
+    public static final String CUSTOM_TYPES_FILE = "custom_types.dat";
+
+    // Journal of changes made since the last snapshot of the files above
+    public static final String JOURNAL_FILE = "dates_journal.dat";
+    public static final long JOURNAL_COMPACTION_THRESHOLD = 256 * 1024; // bytes
+
+    // Read-only archive of every date, memory-mapped instead of read into the heap
+    public static final String ARCHIVE_FILE = "dates_archive.dat";
+
+    // Held by the one DateManager allowed to change the files of a data folder
+    public static final String LOCK_FILE = "dates.lock";
+
+    // Journal record types. Strings are UTF-8 with an int length, adds and updates end with the extra tags.
+    public static final byte JOURNAL_ADD = 1;
+    public static final byte JOURNAL_UPDATE = 2;
+    public static final byte JOURNAL_DELETE = 3;
+    public static final byte JOURNAL_TYPE_ADD = 4;
+
+    // Returns the file with the given name in the data folder, which is the working directory unless the
+    // datetracker.dir system property names another one
+    public static File dataFile(String filename) {
+        return new File(System.getProperty("datetracker.dir", "."), filename);
+    }
+
+    // Locks the data folder for one DateManager, returns null if another process or another DateManager in this
+    // one already has it. Two of them on the same files would each compact from their own state and lose the
+    // changes of the other. The lock goes away with the channel, closing it or the process ending releases it.
+    public static FileLock lockDataFolder() {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(dataFile(LOCK_FILE).toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return lock;
+            }
+        } catch (OverlappingFileLockException e) {
+            // held by another DateManager of this process
+        } catch (IOException e) {
+            System.err.println("Error locking " + LOCK_FILE + ": " + e.getMessage());
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + LOCK_FILE + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Gives the lock from lockDataFolder back
+    public static void unlockDataFolder(FileLock lock) {
+        try {
+            lock.channel().close();
+        } catch (IOException e) {
+            System.err.println("Error unlocking " + LOCK_FILE + ": " + e.getMessage());
+        }
+    }
+
+    // If there are no dates in the system, add the example dates
+    private static void initializeWithDefaultData(String filename) {
+        List<Date> defaultDates = new ArrayList<>();
+        Set<String> defaultTypes = new HashSet<>();
+
+        // Add default types
+        defaultTypes.add("holiday");
+        defaultTypes.add("work");
+
+        if (filename.equals(STICKIED_DATES_FILE)) {
+            defaultDates.add(new Date("New Year", 1, 1, "holiday", true));
+        } else if (filename.equals(UNSTICKIED_DATES_FILE)) {
+            defaultDates.add(new Date("Christmas", 12, 25, "holiday", false));
+            defaultDates.add(new Date("First Day of Class", 9, 1, "work", false));
+        }
+
+        writeDatesToFile(defaultDates, filename);
+
+        // Save the default types to the types file
+        writeCustomTypesToFile(defaultTypes);
+    }
+
+    // Saves the dates to files
+    public static void writeDatesToFile(List<Date> dates, String filename) {
+        writeAtomically(dates, Set.of(), filename);
+    }
+
+    // Saves the types to the file
+    public static void writeCustomTypesToFile(Set<String> customTypes) {
+        writeAtomically(List.of(), customTypes, CUSTOM_TYPES_FILE);
+    }
+
+    // Retrieve existing types from the file
+    public static Set<String> readCustomTypesFromFile() {
+        File file = dataFile(CUSTOM_TYPES_FILE);
+        Set<String> customTypes = new HashSet<>();
+        if (!file.exists()) {
+            return customTypes;
+        }
+
+        try {
+            DateCodec.decode(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), customTypes);
+        } catch (IOException e) {
+            System.err.println("Error reading custom types from file: " + e.getMessage());
+            customTypes.clear();
+        }
+        return customTypes;
+    }
+
+    // Retrieve existing dates from the file
+    public static List<Date> readDatesFromFile(String filename) {
+        return readDatesFromFile(filename, date -> {
+        });
+    }
+
+    // Also hands each date to the consumer as soon as it is decoded, in file order
+    public static List<Date> readDatesFromFile(String filename, Consumer<Date> decoded) {
+        List<Date> dates = new ArrayList<>();
+        File file = dataFile(filename);
+
+        if (!file.exists()) {
+            // Initialize with default data if file not found
+            initializeWithDefaultData(filename);
+        }
+
+        try {
+            List<Date> decodedDates = new ArrayList<>();
+            DateCodec.decode(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), null, date -> {
+                decodedDates.add(date);
+                decoded.accept(date);
+            });
+            dates = decodedDates;
+        } catch (NoSuchFileException e) {
+            System.err.println("File not found after creation: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error reading from " + filename + ": " + e.getMessage());
+        }
+
+        return dates;
+    }
+
+    // Writes all 3 files as a new snapshot, returns false if any of them failed
+    public static boolean writeSnapshot(Collection<Date> stickiedDates, Collection<Date> unstickiedDates,
+            Set<String> customTypes) {
+        return writeAtomically(stickiedDates, Set.of(), STICKIED_DATES_FILE)
+                && writeAtomically(unstickiedDates, Set.of(), UNSTICKIED_DATES_FILE)
+                && writeAtomically(List.of(), customTypes, CUSTOM_TYPES_FILE);
+    }
+
+    // Writes to a temporary file first so a crash never leaves a half written file behind
+    private static boolean writeAtomically(Collection<Date> dates, Set<String> types, String filename) {
+        File temp = dataFile(filename + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            DateCodec.writeHeader(out);
+            CheckedOutputStream body = new CheckedOutputStream(out, new CRC32());
+            DateCodec.writeBody(body, dates, types);
+            out.flush();
+            DateTrackerMetrics.bytesWritten(fos.getChannel().position());
+
+            // The checksum is only known once the body is written, so patch it into the header
+            ByteBuffer checksum = ByteBuffer.allocate(4).putInt((int) body.getChecksum().getValue());
+            checksum.flip();
+            fos.getChannel().write(checksum, DateCodec.CHECKSUM_OFFSET);
+        } catch (IOException e) {
+            System.err.println("Error writing to " + filename + ": " + e.getMessage());
+            return false;
+        }
+        try {
+            Files.move(temp.toPath(), dataFile(filename).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error replacing " + filename + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // One-shot conversion of files written with Java serialization by older versions, keeps the old file as a backup
+    public static void migrateLegacyFiles() {
+        for (String filename : List.of(STICKIED_DATES_FILE, UNSTICKIED_DATES_FILE, CUSTOM_TYPES_FILE)) {
+            File file = dataFile(filename);
+            if (!isLegacyFile(file)) {
+                continue;
+            }
+            try (ObjectInputStream ois = new LegacyObjectInputStream(new FileInputStream(file))) {
+                Object contents = ois.readObject();
+                if (!(contents instanceof Collection)) {
+                    throw new IOException("unexpected contents");
+                }
+                // Old files hold a list of dates or a set of types, check every element instead of trusting the cast
+                List<Date> dates = new ArrayList<>();
+                Set<String> types = new HashSet<>();
+                for (Object element : (Collection<?>) contents) {
+                    if (element instanceof Date) {
+                        dates.add((Date) element);
+                    } else if (element instanceof String) {
+                        types.add((String) element);
+                    } else {
+                        throw new IOException("unexpected element " + element);
+                    }
+                }
+                File backup = dataFile(filename + ".legacy");
+                Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                writeAtomically(dates, types, filename);
+            } catch (IOException | ClassNotFoundException e) {
+                System.err.println("Error migrating " + filename + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Old files were written when Date was in the default package, read them as the Date of this package
+    private static class LegacyObjectInputStream extends ObjectInputStream {
+        LegacyObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (desc.getName().equals("Date")) {
+                return Date.class;
+            }
+            return super.resolveClass(desc);
+        }
+    }
+
+    // Java serialization streams always start with the same two magic bytes
+    private static boolean isLegacyFile(File file) {
+        if (!file.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readShort() == ObjectStreamConstants.STREAM_MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Encodes an add, update or delete record for the date so it can be appended to the journal later.
+    // Takes JOURNAL_ADD, JOURNAL_UPDATE or JOURNAL_DELETE.
+    public static byte[] encodeJournalRecord(byte recordType, Date date) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (recordType == JOURNAL_DELETE) {
+                out.writeByte(JOURNAL_DELETE);
+                out.writeLong(date.getId());
+                return bytes.toByteArray();
+            }
+            out.writeByte(recordType);
+            out.writeLong(date.getId());
+            writeNullableString(out, date.getName());
+            out.writeByte(date.getDay().getMonthValue());
+            out.writeByte(date.getDay().getDayOfMonth());
+            writeNullableString(out, date.getType());
+            out.writeBoolean(date.isStickied());
+            List<String> extraTags = date.getExtraTags();
+            out.writeInt(extraTags.size());
+            for (String tag : extraTags) {
+                writeString(out, tag);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen for an in memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    // Encodes a record for a new custom type
+    public static byte[] encodeTypeRecord(String type) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(JOURNAL_TYPE_ADD);
+            writeString(out, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Appends the encoded records to the journal in a single write, returns false if it failed
+    public static boolean appendToJournal(Collection<byte[]> records) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(dataFile(JOURNAL_FILE), true))) {
+            long written = 0;
+            for (byte[] record : records) {
+                out.write(record);
+                written += record.length;
+            }
+            out.flush();
+            DateTrackerMetrics.bytesWritten(written);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing to " + JOURNAL_FILE + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Returns the size of the active journal in bytes
+    public static long getJournalSize() {
+        return dataFile(JOURNAL_FILE).length();
+    }
+
+    // Moves the active journal aside as a numbered segment so new changes start a fresh journal
+    public static File rotateJournal() {
+        File journal = dataFile(JOURNAL_FILE);
+        if (journal.length() == 0) {
+            return null;
+        }
+        List<File> segments = getJournalSegments();
+        long next = segments.isEmpty() ? 1 : getSegmentNumber(segments.get(segments.size() - 1)) + 1;
+        File segment = dataFile(JOURNAL_FILE + "." + next);
+        if (!journal.renameTo(segment)) {
+            System.err.println("Error rotating " + JOURNAL_FILE);
+            return null;
+        }
+        return segment;
+    }
+
+    // Reads every date as the DateManager would find it on startup, the snapshot files plus the journal,
+    // without building indexes or starting any thread. Custom types are not read.
+    public static Map<Long, Date> readAllDates() {
+        migrateLegacyFiles();
+        Map<Long, Date> dates = new LinkedHashMap<>();
+        long unassigned = 0;
+        for (String filename : List.of(STICKIED_DATES_FILE, UNSTICKIED_DATES_FILE)) {
+            for (Date date : readDatesFromFile(filename)) {
+                // Dates from before ids existed are kept apart under negative keys until the DateManager assigns ids
+                dates.put(date.getId() != 0 ? date.getId() : --unassigned, date);
+            }
+        }
+        List<File> journals = getJournalSegments();
+        journals.add(dataFile(JOURNAL_FILE));
+        Set<String> ignoredTypes = new HashSet<>();
+        for (File journal : journals) {
+            replayJournal(journal, dates, ignoredTypes);
+        }
+        return dates;
+    }
+
+    // Reads every stored date like readAllDates, but into columns instead of one object per date
+    public static ColumnarDateStore readColumnarStore() {
+        migrateLegacyFiles();
+        ColumnarDateStore store = new ColumnarDateStore();
+        long[] unassigned = new long[1];
+        Consumer<Date> put = date -> {
+            // Like readAllDates, dates from before ids existed get negative ids until a DateManager assigns some
+            if (date.getId() == 0) {
+                date.setId(--unassigned[0]);
+            }
+            store.put(date);
+        };
+        for (String filename : List.of(STICKIED_DATES_FILE, UNSTICKIED_DATES_FILE)) {
+            readDatesInto(filename, put);
+        }
+        List<File> journals = getJournalSegments();
+        journals.add(dataFile(JOURNAL_FILE));
+        Set<String> ignoredTypes = new HashSet<>();
+        for (File journal : journals) {
+            replayJournal(journal, store::put, store::remove, ignoredTypes);
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    // Decodes the file straight into the consumer without keeping a list
+    private static void readDatesInto(String filename, Consumer<Date> decoded) {
+        File file = dataFile(filename);
+        if (!file.exists()) {
+            initializeWithDefaultData(filename);
+        }
+        try {
+            DateCodec.decode(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), null, decoded);
+        } catch (IOException e) {
+            System.err.println("Error reading from " + filename + ": " + e.getMessage());
+        }
+    }
+
+    // Writes every stored date, journal included, to the archive file, returns false if it failed
+    public static boolean writeArchive() {
+        try {
+            MappedDateStore.write(dataFile(ARCHIVE_FILE).toPath(), readAllDates().values());
+            DateTrackerMetrics.bytesWritten(dataFile(ARCHIVE_FILE).length());
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing to " + ARCHIVE_FILE + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Opens the archive file in read-only mode, returns null if there is none or it cannot be read
+    public static MappedDateStore openArchive() {
+        File file = dataFile(ARCHIVE_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return MappedDateStore.open(file.toPath());
+        } catch (IOException e) {
+            System.err.println("Error reading from " + ARCHIVE_FILE + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Returns the rotated journal segments that are not yet part of a snapshot, oldest first
+    public static List<File> getJournalSegments() {
+        File directory = dataFile(JOURNAL_FILE).getAbsoluteFile().getParentFile();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(JOURNAL_FILE + ".")
+                && name.substring(JOURNAL_FILE.length() + 1).matches("\\d+"));
+        List<File> segments = new ArrayList<>(files == null ? List.of() : Arrays.asList(files));
+        segments.sort(Comparator.comparingLong(FileDatabaseHelper::getSegmentNumber));
+        return segments;
+    }
+
+    private static long getSegmentNumber(File segment) {
+        String name = segment.getName();
+        return Long.parseLong(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    // Deletes every segment up to and including the given one once a snapshot covers them
+    public static void deleteJournalSegmentsUpTo(File lastSegment) {
+        for (File segment : getJournalSegments()) {
+            if (getSegmentNumber(segment) <= getSegmentNumber(lastSegment)) {
+                segment.delete();
+            }
+        }
+    }
+
+    // Deletes the active journal and all segments, used once a snapshot holds everything
+    public static void clearJournal() {
+        for (File segment : getJournalSegments()) {
+            segment.delete();
+        }
+        dataFile(JOURNAL_FILE).delete();
+    }
+
+    // Applies the records of a journal file to the dates (keyed by id) and types, returns the number applied
+    public static int replayJournal(File journal, Map<Long, Date> dates, Set<String> customTypes) {
+        return replayJournal(journal, date -> dates.put(date.getId(), date), dates::remove, customTypes);
+    }
+
+    // Hands each added or updated date to put and each deleted id to remove, in journal order
+    public static int replayJournal(File journal, Consumer<Date> put, LongConsumer remove, Set<String> customTypes) {
+        int applied = 0;
+        if (!journal.exists()) {
+            return applied;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            while (true) {
+                int recordType = in.read();
+                if (recordType == -1) {
+                    break;
+                }
+                if (recordType == JOURNAL_TYPE_ADD) {
+                    customTypes.add(readString(in));
+                } else if (recordType == JOURNAL_ADD || recordType == JOURNAL_UPDATE) {
+                    long id = in.readLong();
+                    String name = readNullableString(in);
+                    int month = in.readByte();
+                    int day = in.readByte();
+                    String type = readNullableString(in);
+                    boolean stickied = in.readBoolean();
+                    Date date = new Date(id, name, month, day, type, stickied);
+                    int tagCount = in.readInt();
+                    if (tagCount < 0) {
+                        throw new IOException("corrupt tag count " + tagCount);
+                    }
+                    String[] tags = new String[tagCount];
+                    for (int i = 0; i < tags.length; i++) {
+                        tags[i] = readString(in);
+                    }
+                    if (tags.length > 0) {
+                        date.setExtraTags(List.of(tags));
+                    }
+                    put.accept(date);
+                } else if (recordType == JOURNAL_DELETE) {
+                    remove.accept(in.readLong());
+                } else {
+                    throw new IOException("unknown record type " + recordType);
+                }
+                applied++;
+            }
+        } catch (EOFException e) {
+            // A record cut off by a crash, everything before it is still valid
+            System.err.println("Ignoring incomplete record at the end of " + journal.getName());
+        } catch (IOException e) {
+            System.err.println("Error reading from " + journal.getName() + ": " + e.getMessage());
+        }
+        return applied;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    // Length-prefixed UTF-8 like DateCodec uses, so names and tags of any length can be journaled
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("corrupt string length " + length);
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+//Read only list of dates made of bucket arrays that never change, so snapshots can share them
+
+package core;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+class FrozenDateList extends AbstractList<Date> implements RandomAccess {
+    private final Date[][] parts;
+    // Position just after the last date of each part
+    private final int[] ends;
+
+    // The parts are kept, not copied, the caller must never change them
+    FrozenDateList(Date[][] parts) {
+        this.parts = parts;
+        this.ends = new int[parts.length];
+        int end = 0;
+        for (int i = 0; i < parts.length; i++) {
+            end += parts[i].length;
+            ends[i] = end;
+        }
+    }
+
+    // The parts of the first list followed by the parts of the second, only the outer arrays are copied
+    static FrozenDateList concat(FrozenDateList first, FrozenDateList second) {
+        Date[][] parts = Arrays.copyOf(first.parts, first.parts.length + second.parts.length);
+        System.arraycopy(second.parts, 0, parts, first.parts.length, second.parts.length);
+        return new FrozenDateList(parts);
+    }
+
+    @Override
+    public Date get(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + size());
+        }
+        // The part whose end is the first one past the position
+        int part = Arrays.binarySearch(ends, position + 1);
+        if (part < 0) {
+            part = -part - 1;
+        }
+        return parts[part][position - (ends[part] - parts[part].length)];
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    // Walks the parts directly instead of searching for every position
+    @Override
+    public Iterator<Date> iterator() {
+        return new Iterator<Date>() {
+            private int part;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                while (part < parts.length && offset == parts[part].length) {
+                    part++;
+                    offset = 0;
+                }
+                return part < parts.length;
+            }
+
+            @Override
+            public Date next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return parts[part][offset++];
+            }
+        };
+    }
+}
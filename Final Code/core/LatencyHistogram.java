@@ -0,0 +1,103 @@
+//Counts how long an operation takes in buckets that grow with the time, so percentiles cost no memory per call
+
+package core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+    // Every power of two of nanoseconds is split in 8 buckets, so a percentile is off by at most an eighth
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    // Records one call, safe to call from any thread without locking
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0; // nanoTime is monotonic, but guard against a caller mixing up its arguments
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // Records a call that started at the given System.nanoTime()
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long calls = count.sum();
+        return calls == 0 ? 0 : totalNanos.sum() / (double) calls / 1_000_000.0;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    // The time that the given fraction of calls stayed under, e.g. 0.99, rounded up to the end of its bucket
+    public double getPercentileMillis(double fraction) {
+        long[] counts = new long[BUCKETS];
+        long calls = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            calls += counts[i];
+        }
+        if (calls == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * calls));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos.get()) / 1_000_000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    // Starts counting from zero again
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    // Values below 8 get a bucket each, above that the highest bit picks the power of two and the next three
+    // bits the bucket within it
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((highestBit - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    private static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int highestBit = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << (highestBit - SUB_BUCKET_BITS);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return bucket + 1 == BUCKETS ? Long.MAX_VALUE : lowerBoundOf(bucket + 1) - 1;
+    }
+}
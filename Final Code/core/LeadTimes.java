@@ -0,0 +1,107 @@
+//How many days before each date its reminders go off, set per type with a default for every other type
+
+package core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class LeadTimes {
+    // Read by fromSystemProperty, e.g. "7,1;birthday=14,7,1;work=" for two reminders by default, three for
+    // birthdays and none for work
+    public static final String PROPERTY = "datetracker.reminders";
+    public static final String DEFAULT_SPEC = "7,1";
+
+    private int[] defaultDays;
+    private final Map<String, int[]> daysByType = new HashMap<>(); // keys in lower case like the custom types
+
+    public LeadTimes(int... defaultDays) {
+        this.defaultDays = normalize(defaultDays);
+    }
+
+    // Parses a spec like the PROPERTY example, an entry without "type=" sets the default
+    public static LeadTimes parse(String spec) {
+        LeadTimes leadTimes = new LeadTimes();
+        for (String entry : spec.split(";")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            int[] days = parseDays(equals < 0 ? entry : entry.substring(equals + 1));
+            if (equals < 0) {
+                leadTimes.setDefault(days);
+            } else {
+                leadTimes.set(entry.substring(0, equals).trim(), days);
+            }
+        }
+        return leadTimes;
+    }
+
+    // The lead times in the PROPERTY system property, or 7 and 1 days before every date
+    public static LeadTimes fromSystemProperty() {
+        return parse(System.getProperty(PROPERTY, DEFAULT_SPEC));
+    }
+
+    private static int[] parseDays(String list) {
+        String[] parts = list.split(",");
+        int[] days = new int[parts.length];
+        int count = 0;
+        for (String part : parts) {
+            if (!part.isBlank()) {
+                days[count++] = Integer.parseInt(part.trim());
+            }
+        }
+        return Arrays.copyOf(days, count);
+    }
+
+    public void setDefault(int... days) {
+        defaultDays = normalize(days);
+    }
+
+    // No days at all turns the reminders of the type off
+    public void set(String type, int... days) {
+        daysByType.put(type.toLowerCase(), normalize(days));
+    }
+
+    // The lead times of the type, or of the first extra tag that has some, or the default. Largest first.
+    public int[] get(Date date) {
+        for (String tag : date.getTags()) {
+            int[] days = daysByType.get(tag.toLowerCase());
+            if (days != null) {
+                return days;
+            }
+        }
+        return defaultDays;
+    }
+
+    // Sorted largest first without repeats, a date can only be reminded of up to a year ahead
+    private static int[] normalize(int[] days) {
+        TreeSet<Integer> sorted = new TreeSet<>();
+        for (int day : days) {
+            if (day < 0 || day >= DayOfYearIndex.DAYS_IN_YEAR) {
+                throw new IllegalArgumentException("Lead time must be 0 to 365 days: " + day);
+            }
+            sorted.add(day);
+        }
+        return sorted.descendingSet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder spec = new StringBuilder(join(defaultDays));
+        for (Map.Entry<String, int[]> entry : daysByType.entrySet()) {
+            spec.append(';').append(entry.getKey()).append('=').append(join(entry.getValue()));
+        }
+        return spec.toString();
+    }
+
+    private static String join(int[] days) {
+        StringBuilder list = new StringBuilder();
+        for (int day : days) {
+            list.append(list.length() > 0 ? "," : "").append(day);
+        }
+        return list.toString();
+    }
+}
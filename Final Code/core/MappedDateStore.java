@@ -0,0 +1,276 @@
+//Read-only store for very large date archives, the file is memory-mapped and dates are read from it on demand
+
+package core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.MonthDay;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MappedDateStore {
+    // File layout: header, day offset table, type dictionary, fixed width records sorted by day, name bytes
+    public static final int MAGIC = 0x4454524D; // "DTRM"
+    public static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 4 + 4 + 4;
+    // Entry i is the first record on day slot i, the extra last entry is the record count
+    private static final int OFFSET_TABLE_SIZE = (DayOfYearIndex.DAYS_IN_YEAR + 1) * 4;
+
+    // Record layout: id, packed day, flags, unused byte, type index (0 for none), name offset and length
+    public static final int RECORD_SIZE = 24;
+    private static final int ID = 0;
+    private static final int PACKED_DAY = 8;
+    private static final int FLAGS = 10;
+    private static final int TYPE = 12;
+    private static final int NAME_OFFSET = 16;
+    private static final int NAME_LENGTH = 20;
+
+    private static final int FLAG_STICKIED = 1;
+    private static final int FLAG_NO_NAME = 2;
+
+    private final ByteBuffer buffer;
+    private final String[] types; // the dictionary is tiny, so it is the one thing kept on the heap
+    private final int dayOffsets; // position of the offset table
+    private final int records; // position of the first record
+    private final int names; // position of the name bytes
+    private final int size;
+
+    private MappedDateStore(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE + OFFSET_TABLE_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a date archive");
+        }
+        int version = buffer.get(4);
+        if (version > FORMAT_VERSION) {
+            throw new IOException("unsupported format version " + version);
+        }
+        size = buffer.getInt(5);
+        int typeCount = buffer.getInt(9);
+        int dictionarySize = buffer.getInt(13);
+        dayOffsets = HEADER_SIZE;
+        int dictionary = dayOffsets + OFFSET_TABLE_SIZE;
+        records = dictionary + dictionarySize;
+        names = records + size * RECORD_SIZE;
+        if (size < 0 || typeCount < 0 || dictionarySize < 0 || (long) records + (long) size * RECORD_SIZE > buffer.capacity()
+                || buffer.getInt(dayOffsets + DayOfYearIndex.DAYS_IN_YEAR * 4) != size) {
+            throw new IOException("corrupt date archive");
+        }
+
+        types = new String[typeCount + 1];
+        ByteBuffer in = buffer.duplicate();
+        in.position(dictionary);
+        try {
+            for (int i = 1; i <= typeCount; i++) {
+                byte[] bytes = new byte[in.getShort() & 0xFFFF];
+                in.get(bytes);
+                types[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("corrupt date archive", e);
+        }
+    }
+
+    // Maps the file, only the header and the type dictionary are read now so opening takes the same time
+    // whatever the size of the file
+    public static MappedDateStore open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("date archive larger than 2 GB");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedDateStore(mapped);
+        }
+    }
+
+    // Writes the dates as an archive, through a temporary file so readers never see half of one
+    public static void write(Path file, Collection<Date> dates) throws IOException {
+        // Count the dates of each day first so the records can be placed by day without sorting
+        int[] dayStarts = new int[DayOfYearIndex.DAYS_IN_YEAR + 1];
+        Map<String, Integer> typeIndexes = new HashMap<>();
+        List<String> typeList = new ArrayList<>();
+        int dictionarySize = 0;
+        for (Date date : dates) {
+            dayStarts[DayOfYearIndex.slotOf(date.getDay()) + 1]++;
+            String type = date.getType();
+            if (type != null && !typeIndexes.containsKey(type)) {
+                typeIndexes.put(type, typeList.size() + 1); // 0 is reserved for dates without a type
+                typeList.add(type);
+                dictionarySize += 2 + type.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        for (int slot = 0; slot < DayOfYearIndex.DAYS_IN_YEAR; slot++) {
+            dayStarts[slot + 1] += dayStarts[slot];
+        }
+
+        // Each date goes to the next free record of its day, keeping the order they came in within a day
+        int[] nextRecord = dayStarts.clone();
+        Date[] ordered = new Date[dates.size()];
+        for (Date date : dates) {
+            ordered[nextRecord[DayOfYearIndex.slotOf(date.getDay())]++] = date;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(ordered.length);
+            out.writeInt(typeList.size());
+            out.writeInt(dictionarySize);
+            for (int start : dayStarts) {
+                out.writeInt(start);
+            }
+            for (String type : typeList) {
+                byte[] bytes = type.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IOException("type name too long: " + type.substring(0, 40) + "...");
+                }
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            long nameOffset = 0;
+            for (Date date : ordered) {
+                int nameLength = date.getName() == null ? 0 : utf8Length(date.getName());
+                if (nameOffset + nameLength > Integer.MAX_VALUE) {
+                    throw new IOException("names of the dates take more than 2 GB");
+                }
+                out.writeLong(date.getId());
+                out.writeShort(DateCodec.packDay(date.getDay().getMonthValue(), date.getDay().getDayOfMonth()));
+                out.writeByte((date.isStickied() ? FLAG_STICKIED : 0) | (date.getName() == null ? FLAG_NO_NAME : 0));
+                out.writeByte(0);
+                out.writeInt(date.getType() == null ? 0 : typeIndexes.get(date.getType()));
+                out.writeInt((int) nameOffset);
+                out.writeInt(nameLength);
+                nameOffset += nameLength;
+            }
+            for (Date date : ordered) {
+                if (date.getName() != null) {
+                    writeUtf8(out, date.getName());
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Every date of the archive by day of the year from Jan 1, nothing is read until a date is asked for
+    public List<Date> getAllDates() {
+        return new RecordRange(0, size, 0, 0);
+    }
+
+    // Returns the dates from one day up to and including another, wrapping around the end of the year
+    public List<Date> getBetween(MonthDay from, MonthDay to) {
+        int fromSlot = DayOfYearIndex.slotOf(from);
+        int toSlot = DayOfYearIndex.slotOf(to);
+        if (fromSlot <= toSlot) {
+            return new RecordRange(dayStart(fromSlot), dayStart(toSlot + 1), 0, 0);
+        }
+        // The range wraps, so it is the end of the year followed by the start of the next one
+        return new RecordRange(dayStart(fromSlot), size, 0, dayStart(toSlot + 1));
+    }
+
+    // Returns every date on the given day
+    public List<Date> getDatesOn(MonthDay day) {
+        return getBetween(day, day);
+    }
+
+    // Index of the first record on the day slot, the offset table makes this a single read
+    private int dayStart(int slot) {
+        return buffer.getInt(dayOffsets + slot * 4);
+    }
+
+    // Up to two runs of consecutive records seen as one list, each get() makes a view of one record
+    private class RecordRange extends AbstractList<Date> {
+        private final int firstStart;
+        private final int firstSize;
+        private final int secondStart;
+        private final int size;
+
+        RecordRange(int firstStart, int firstEnd, int secondStart, int secondEnd) {
+            this.firstStart = firstStart;
+            this.firstSize = firstEnd - firstStart;
+            this.secondStart = secondStart;
+            this.size = firstSize + secondEnd - secondStart;
+        }
+
+        @Override
+        public Date get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return new MappedDate(index < firstSize ? firstStart + index : secondStart + index - firstSize);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // A date backed by its record in the file, fields are read when asked for
+    private class MappedDate extends DateView {
+        private static final long serialVersionUID = 1L;
+
+        private final int position;
+
+        MappedDate(int record) {
+            this.position = records + record * RECORD_SIZE;
+        }
+
+        @Override
+        public long getId() {
+            return buffer.getLong(position + ID);
+        }
+
+        @Override
+        public String getName() {
+            if ((buffer.get(position + FLAGS) & FLAG_NO_NAME) != 0) {
+                return null;
+            }
+            byte[] bytes = new byte[buffer.getInt(position + NAME_LENGTH)];
+            buffer.duplicate().position(names + buffer.getInt(position + NAME_OFFSET)).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public MonthDay getDay() {
+            int packedDay = buffer.getShort(position + PACKED_DAY) & 0xFFFF;
+            return MonthDay.of(DateCodec.unpackMonth(packedDay), DateCodec.unpackDay(packedDay));
+        }
+
+        @Override
+        public String getType() {
+            return types[buffer.getInt(position + TYPE)];
+        }
+
+        @Override
+        public boolean isStickied() {
+            return (buffer.get(position + FLAGS) & FLAG_STICKIED) != 0;
+        }
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void writeUtf8(OutputStream out, String value) throws IOException {
+        out.write(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+//Read only list of dates that looks straight into a stickied and an unstickied index, so nothing is copied
+
+package core;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+public class OrderedDateView extends AbstractList<Date> implements RandomAccess {
+    // The indexes are looked up on every access, so the view follows them even if they are replaced
+    private final Supplier<DayOfYearIndex> stickiedDates;
+    private final Supplier<DayOfYearIndex> unstickiedDates;
+
+    public OrderedDateView(Supplier<DayOfYearIndex> stickiedDates, Supplier<DayOfYearIndex> unstickiedDates) {
+        this.stickiedDates = stickiedDates;
+        this.unstickiedDates = unstickiedDates;
+    }
+
+    private static int sizeOf(DayOfYearIndex index) {
+        return index == null ? 0 : index.size();
+    }
+
+    @Override
+    public Date get(int position) {
+        DayOfYearIndex stickied = stickiedDates.get();
+        int stickiedCount = sizeOf(stickied);
+        if (position < stickiedCount) {
+            return stickied.get(position);
+        }
+        DayOfYearIndex unstickied = unstickiedDates.get();
+        if (unstickied == null) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + stickiedCount);
+        }
+        return unstickied.get(position - stickiedCount);
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(stickiedDates.get()) + sizeOf(unstickiedDates.get());
+    }
+
+    // Stickied dates come first, so a date's position is found in its own index
+    @Override
+    public int indexOf(Object date) {
+        DayOfYearIndex stickied = stickiedDates.get();
+        int position = stickied == null ? -1 : stickied.indexOf(date);
+        if (position >= 0) {
+            return position;
+        }
+        DayOfYearIndex unstickied = unstickiedDates.get();
+        position = unstickied == null ? -1 : unstickied.indexOf(date);
+        return position < 0 ? -1 : sizeOf(stickied) + position;
+    }
+
+    @Override
+    public int lastIndexOf(Object date) {
+        return indexOf(date);
+    }
+
+    @Override
+    public boolean contains(Object date) {
+        return indexOf(date) >= 0;
+    }
+}
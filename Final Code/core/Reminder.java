@@ -0,0 +1,43 @@
+//A reminder going off for a date some number of days before it occurs
+
+package core;
+
+import java.time.LocalDate;
+
+public class Reminder {
+    private final Date date;
+    private final LocalDate occurrence;
+    private final int daysBefore;
+
+    public Reminder(Date date, LocalDate occurrence, int daysBefore) {
+        this.date = date;
+        this.occurrence = occurrence;
+        this.daysBefore = daysBefore;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    // The occurrence of the date that the reminder is for
+    public LocalDate getOccurrence() {
+        return occurrence;
+    }
+
+    public int getDaysBefore() {
+        return daysBefore;
+    }
+
+    // The day the reminder goes off
+    public LocalDate getReminderDay() {
+        return occurrence.minusDays(daysBefore);
+    }
+
+    // A message for the user, e.g. "Mom's Birthday (birthday) is in 7 days, on 12/31"
+    @Override
+    public String toString() {
+        String when = daysBefore == 0 ? "is today" : daysBefore == 1 ? "is tomorrow" : "is in " + daysBefore + " days";
+        return (date.getName() != null ? date.getName() : "Unnamed") + " (" + date.getType() + ") " + when + ", on "
+                + occurrence.getMonthValue() + "/" + occurrence.getDayOfMonth();
+    }
+}
@@ -0,0 +1,189 @@
+//Keeps every date by the day its next reminder goes off, in a heap so the next one is found without a scan
+
+package core;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReminderQueue {
+    // One entry per date holding only its next reminder, so the heap never grows with the number of lead times
+    private static class Entry {
+        Date date;
+        long reminderDay; // epoch day the next reminder goes off
+        int daysBefore; // lead time of that reminder
+        long notBefore; // epoch day from which the date may be reminded of again, the day after the last reminder
+        int position; // index in the heap
+    }
+
+    private LeadTimes leadTimes;
+    private Entry[] heap = new Entry[64];
+    private int size;
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+
+    public ReminderQueue(LeadTimes leadTimes) {
+        this.leadTimes = leadTimes;
+    }
+
+    // Replaces everything with the dates, each gets its next reminder on or after the given day.
+    // Dates already in the queue are not reminded of again for a reminder they already had.
+    // Heapifying all at once is linear, cheaper than adding the dates one by one.
+    public void rebuild(Collection<Date> dates, long fromEpochDay) {
+        Map<Long, Entry> previous = new HashMap<>(entriesById);
+        entriesById.clear();
+        heap = new Entry[Math.max(64, dates.size())];
+        size = 0;
+        for (Date date : dates) {
+            Entry old = previous.get(date.getId());
+            Entry entry = new Entry();
+            entry.date = date;
+            entry.notBefore = old == null ? fromEpochDay : Math.max(fromEpochDay, old.notBefore);
+            if (findNextReminder(entry)) {
+                entry.position = size;
+                heap[size++] = entry;
+                entriesById.put(date.getId(), entry);
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    // Changes the lead times and works out the next reminder of every date again
+    public void setLeadTimes(LeadTimes leadTimes, long fromEpochDay) {
+        this.leadTimes = leadTimes;
+        List<Date> dates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dates.add(heap[i].date);
+        }
+        rebuild(dates, fromEpochDay);
+    }
+
+    // Adds the date, or moves it to its new reminder if it is already in the queue
+    public void schedule(Date date, long fromEpochDay) {
+        Entry entry = entriesById.get(date.getId());
+        if (entry == null) {
+            entry = new Entry();
+            entry.notBefore = fromEpochDay;
+        } else {
+            removeAt(entry.position);
+            entry.notBefore = Math.max(fromEpochDay, entry.notBefore);
+        }
+        entry.date = date;
+        if (!findNextReminder(entry)) {
+            entriesById.remove(date.getId()); // its type has no reminders
+            return;
+        }
+        entriesById.put(date.getId(), entry);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        entry.position = size;
+        heap[size++] = entry;
+        siftUp(entry.position);
+    }
+
+    public void remove(long id) {
+        Entry entry = entriesById.remove(id);
+        if (entry != null) {
+            removeAt(entry.position);
+        }
+    }
+
+    // Epoch day of the next reminder of any date, Long.MAX_VALUE if there is none
+    public long peekReminderDay() {
+        return size == 0 ? Long.MAX_VALUE : heap[0].reminderDay;
+    }
+
+    // Takes every reminder going off up to and including the given day, in order, and moves each date on to
+    // its following reminder
+    public List<Reminder> pollDue(long throughEpochDay) {
+        List<Reminder> due = new ArrayList<>();
+        while (size > 0 && heap[0].reminderDay <= throughEpochDay) {
+            Entry entry = heap[0];
+            due.add(new Reminder(entry.date, LocalDate.ofEpochDay(entry.reminderDay + entry.daysBefore),
+                    entry.daysBefore));
+            entry.notBefore = entry.reminderDay + 1;
+            findNextReminder(entry); // every date occurs once a year, so there always is a next one
+            siftDown(0);
+        }
+        return due;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Sets the earliest reminder of the date on or after notBefore, returns false if its type has none
+    private boolean findNextReminder(Entry entry) {
+        MonthDay day = entry.date.getDay();
+        entry.reminderDay = Long.MAX_VALUE;
+        for (int daysBefore : leadTimes.get(entry.date)) {
+            // The first occurrence far enough away for this lead time
+            LocalDate earliest = LocalDate.ofEpochDay(entry.notBefore + daysBefore);
+            LocalDate occurrence = day.atYear(earliest.getYear());
+            if (occurrence.isBefore(earliest)) {
+                occurrence = day.atYear(earliest.getYear() + 1);
+            }
+            long reminderDay = occurrence.toEpochDay() - daysBefore;
+            if (reminderDay < entry.reminderDay) {
+                entry.reminderDay = reminderDay;
+                entry.daysBefore = daysBefore;
+            }
+        }
+        return entry.reminderDay != Long.MAX_VALUE;
+    }
+
+    private void removeAt(int position) {
+        Entry last = heap[--size];
+        heap[size] = null;
+        if (position == size) {
+            return;
+        }
+        heap[position] = last;
+        last.position = position;
+        siftDown(position);
+        siftUp(last.position);
+    }
+
+    private void siftUp(int position) {
+        Entry entry = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (heap[parent].reminderDay <= entry.reminderDay) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heap[position].position = position;
+            position = parent;
+        }
+        heap[position] = entry;
+        entry.position = position;
+    }
+
+    private void siftDown(int position) {
+        Entry entry = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].reminderDay < heap[child].reminderDay) {
+                child++;
+            }
+            if (entry.reminderDay <= heap[child].reminderDay) {
+                break;
+            }
+            heap[position] = heap[child];
+            heap[position].position = position;
+            position = child;
+        }
+        heap[position] = entry;
+        entry.position = position;
+    }
+}
@@ -0,0 +1,164 @@
+//Goes off ahead of each date, following the DateManager's changes so no date is ever looked at again until
+//its own reminder is due
+
+package core;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class ReminderScheduler implements DateUpdateListener {
+    public static final LocalTime DEFAULT_REMINDER_TIME = LocalTime.of(9, 0);
+
+    private final DateManager dateManager;
+    private final Clock clock;
+    private final ReminderQueue queue;
+    private final LocalTime reminderTime; // reminders go off at this time on their day, or on start if later
+    private final List<Consumer<Reminder>> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> nextCheck;
+    private long nextCheckDay = Long.MAX_VALUE; // the reminder day nextCheck waits for
+
+    public ReminderScheduler(DateManager dateManager, LeadTimes leadTimes) {
+        this(dateManager, leadTimes, DEFAULT_REMINDER_TIME);
+    }
+
+    public ReminderScheduler(DateManager dateManager, LeadTimes leadTimes, LocalTime reminderTime) {
+        this.dateManager = dateManager;
+        this.clock = dateManager.getDayRollover().getClock();
+        this.queue = new ReminderQueue(leadTimes);
+        this.reminderTime = reminderTime;
+        // Changes are made holding the DateManager lock, so none can slip in between the two
+        synchronized (dateManager) {
+            dateManager.addDateUpdateListener(this);
+            queue.rebuild(dateManager.getAllDates(), today());
+        }
+    }
+
+    // Called with each reminder as it goes off, on the scheduler's own thread
+    public void addReminderListener(Consumer<Reminder> listener) {
+        listeners.add(listener);
+    }
+
+    // Starts waiting for the next reminder on a background thread, reminders already due today go off now
+    public synchronized void start() {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "date-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        nextCheckDay = Long.MAX_VALUE;
+        armTimer();
+    }
+
+    public synchronized void stop() {
+        dateManager.removeDateUpdateListener(this);
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    // Changes the lead times, every date gets its next reminder worked out again
+    public synchronized void setLeadTimes(LeadTimes leadTimes) {
+        queue.setLeadTimes(leadTimes, today());
+        armTimer();
+    }
+
+    // Number of dates with a reminder coming up
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    // The day the next reminder goes off, null if there is none
+    public synchronized LocalDate getNextReminderDay() {
+        long day = queue.peekReminderDay();
+        return day == Long.MAX_VALUE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    @Override
+    public void onDateUpdated() {
+    }
+
+    // Told about every change right away, while the DateManager still holds its lock. Only the changed date is
+    // moved in the queue, a burst too large to list is the one case that rebuilds it.
+    @Override
+    public synchronized void onDatesChanged(List<DateChangeEvent> events) {
+        long today = today();
+        for (DateChangeEvent event : events) {
+            switch (event.getKind()) {
+                case ADDED:
+                case UPDATED:
+                case MOVED:
+                    queue.schedule(event.getDate(), today);
+                    break;
+                case REMOVED:
+                    queue.remove(event.getDate().getId());
+                    break;
+                case BULK_CHANGE:
+                    queue.rebuild(dateManager.getAllDates(), today);
+                    break;
+                default:
+                    break; // reminders are kept by calendar day, so midnight changes nothing
+            }
+        }
+        armTimer();
+    }
+
+    // Sends out every reminder that is due, returns them. Called by the timer, can also be called directly.
+    public List<Reminder> checkDue() {
+        List<Reminder> due;
+        synchronized (this) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            // Before the reminder time only the reminders of earlier days are due
+            long throughDay = now.toLocalDate().toEpochDay() - (now.toLocalTime().isBefore(reminderTime) ? 1 : 0);
+            due = queue.pollDue(throughDay);
+            nextCheckDay = Long.MAX_VALUE;
+            armTimer();
+        }
+        // Outside the lock, so a listener may call back into the DateManager
+        for (Reminder reminder : due) {
+            for (Consumer<Reminder> listener : listeners) {
+                listener.accept(reminder);
+            }
+        }
+        return due;
+    }
+
+    // Makes sure the timer wakes up for the earliest reminder, only touching it when that reminder changed
+    private synchronized void armTimer() {
+        long day = queue.peekReminderDay();
+        if (timer == null || day == nextCheckDay) {
+            return;
+        }
+        if (nextCheck != null) {
+            nextCheck.cancel(false);
+        }
+        nextCheckDay = day;
+        if (day == Long.MAX_VALUE) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime due = LocalDate.ofEpochDay(day).atTime(reminderTime).atZone(clock.getZone());
+        long delay = Math.max(0, Duration.between(now, due).toMillis());
+        // A timer can fire a little early after clock adjustments, then checkDue finds nothing and waits again
+        nextCheck = timer.schedule(this::checkDue, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+}
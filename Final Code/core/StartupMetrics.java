@@ -0,0 +1,54 @@
+//Times how long the application takes from start until the first date is on screen and until every date is loaded
+
+package core;
+
+public class StartupMetrics {
+    private static volatile long startNanos = System.nanoTime();
+    private static volatile long firstRowNanos = -1;
+    private static volatile long loadedNanos = -1;
+    private static volatile int loadedDates;
+
+    private StartupMetrics() {
+    }
+
+    // Call first thing in main, everything is measured from here
+    public static void start() {
+        startNanos = System.nanoTime();
+        firstRowNanos = -1;
+        loadedNanos = -1;
+    }
+
+    // Call once the first row is shown, later calls are ignored
+    public static void firstRowShown() {
+        if (firstRowNanos < 0) {
+            firstRowNanos = System.nanoTime();
+        }
+    }
+
+    public static void loadFinished(int dateCount) {
+        loadedDates = dateCount;
+        loadedNanos = System.nanoTime();
+    }
+
+    // Milliseconds from start until the first row was shown, -1 if it has not been yet
+    public static double getTimeToFirstRowMillis() {
+        long firstRow = firstRowNanos;
+        return firstRow < 0 ? -1 : (firstRow - startNanos) / 1_000_000.0;
+    }
+
+    // Milliseconds from start until every date was loaded, -1 if loading has not finished
+    public static double getTimeToLoadedMillis() {
+        long loaded = loadedNanos;
+        return loaded < 0 ? -1 : (loaded - startNanos) / 1_000_000.0;
+    }
+
+    public static int getLoadedDates() {
+        return loadedDates;
+    }
+
+    // One line for the log
+    public static String summary() {
+        return String.format("Startup: first row after %.0f ms, %d dates loaded after %.0f ms",
+                getTimeToFirstRowMillis(), getLoadedDates(), getTimeToLoadedMillis());
+    }
+}
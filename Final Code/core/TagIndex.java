@@ -0,0 +1,166 @@
+//Keeps one bitmap per tag so tag queries are answered a word of dates at a time
+
+package core;
+
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TagIndex {
+    // Each tag gets a small id the first time it is seen, ids are never reused. Tags are stored in lower case
+    // like the custom types of the DateManager.
+    private final Map<String, Integer> tagIds = new HashMap<>();
+    private final List<BitSet> bitmaps = new ArrayList<>(); // bit i of bitmap t is set if the date in row i has tag t
+    // Every date gets a row, rows of removed dates are handed out again so the bitmaps stay dense
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private Date[] dates = new Date[64];
+    private final BitSet usedRows = new BitSet();
+    private MonthDay today;
+
+    public TagIndex(MonthDay today) {
+        this.today = today;
+    }
+
+    // Returns the id of the tag, giving it one if it has none yet
+    public int intern(String tag) {
+        return tagIds.computeIfAbsent(tag.toLowerCase(), key -> {
+            bitmaps.add(new BitSet());
+            return bitmaps.size() - 1;
+        });
+    }
+
+    // Number of tags that were given an id, the next tag gets this id
+    int getTagCount() {
+        return bitmaps.size();
+    }
+
+    // Forgets every tag whose id is firstTag or higher, no indexed date may still have one of them.
+    // Used to undo the tags seen first in a batch that failed.
+    void forgetTagsFrom(int firstTag) {
+        tagIds.values().removeIf(id -> id >= firstTag);
+        bitmaps.subList(firstTag, bitmaps.size()).clear();
+    }
+
+    // Adds the date under each of its tags, replacing any date with the same id
+    public void add(Date date) {
+        Integer existing = rowsById.get(date.getId());
+        int row;
+        if (existing != null) {
+            row = existing;
+            clearRow(row);
+        } else {
+            row = usedRows.nextClearBit(0);
+            usedRows.set(row);
+            rowsById.put(date.getId(), row);
+            if (row == dates.length) {
+                dates = Arrays.copyOf(dates, dates.length * 2);
+            }
+        }
+        dates[row] = date;
+        for (String tag : date.getTags()) {
+            bitmaps.get(intern(tag)).set(row);
+        }
+    }
+
+    public void remove(Date date) {
+        Integer row = rowsById.remove(date.getId());
+        if (row == null) {
+            return;
+        }
+        clearRow(row);
+        dates[row] = null;
+        usedRows.clear(row);
+    }
+
+    // Clears the row in the bitmaps of the tags the date in it had. Dates are replaced rather than changed once
+    // indexed, so the old date still has the tags it was added with.
+    private void clearRow(int row) {
+        for (String tag : dates[row].getTags()) {
+            Integer id = tagIds.get(tag.toLowerCase());
+            if (id != null) {
+                bitmaps.get(id).clear(row);
+            }
+        }
+    }
+
+    // Called with the new day right after midnight
+    public void rotateTo(MonthDay today) {
+        this.today = today;
+    }
+
+    // Returns the rows of the dates answering the query. All of the work is AND, OR and AND NOT of whole
+    // bitmaps, so it takes the same time however many dates have the tags.
+    public BitSet getMatchingRows(TagQuery query) {
+        BitSet rows = (BitSet) usedRows.clone();
+        for (String tag : query.getAllOf()) {
+            Integer id = tagIds.get(tag);
+            if (id == null) {
+                return new BitSet(); // no date has the tag
+            }
+            rows.and(bitmaps.get(id));
+        }
+        if (!query.getAnyOf().isEmpty()) {
+            BitSet any = new BitSet();
+            for (String tag : query.getAnyOf()) {
+                Integer id = tagIds.get(tag);
+                if (id != null) {
+                    any.or(bitmaps.get(id));
+                }
+            }
+            rows.and(any);
+        }
+        for (String tag : query.getNoneOf()) {
+            Integer id = tagIds.get(tag);
+            if (id != null) {
+                rows.andNot(bitmaps.get(id));
+            }
+        }
+        return rows;
+    }
+
+    // Returns the dates answering the query, stickied first, each part in order of next occurrence
+    public List<Date> getDates(TagQuery query) {
+        int todaySlot = DayOfYearIndex.slotOf(today);
+        return getDates(query, todaySlot, DayOfYearIndex.DAYS_IN_YEAR - 1);
+    }
+
+    // Returns the dates answering the query from one day up to and including another, in the same order
+    public List<Date> getDatesBetween(TagQuery query, MonthDay from, MonthDay to) {
+        int fromSlot = DayOfYearIndex.slotOf(from);
+        int length = (DayOfYearIndex.slotOf(to) - fromSlot + DayOfYearIndex.DAYS_IN_YEAR) % DayOfYearIndex.DAYS_IN_YEAR;
+        return getDates(query, fromSlot, length);
+    }
+
+    // Orders the matches by counting them per day, stickied dates get the first 366 counters.
+    // Dates on the same day keep their row order.
+    private List<Date> getDates(TagQuery query, int fromSlot, int length) {
+        BitSet rows = getMatchingRows(query);
+        int[] starts = new int[2 * DayOfYearIndex.DAYS_IN_YEAR + 1];
+        int[] buckets = new int[rows.length()];
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            Date date = dates[row];
+            int daysFromStart = (DayOfYearIndex.slotOf(date.getDay()) - fromSlot + DayOfYearIndex.DAYS_IN_YEAR)
+                    % DayOfYearIndex.DAYS_IN_YEAR;
+            if (daysFromStart > length) {
+                buckets[row] = -1;
+                continue;
+            }
+            buckets[row] = date.isStickied() ? daysFromStart : DayOfYearIndex.DAYS_IN_YEAR + daysFromStart;
+            starts[buckets[row] + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        Date[] ordered = new Date[starts[starts.length - 1]];
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (buckets[row] >= 0) {
+                ordered[starts[buckets[row]]++] = dates[row];
+            }
+        }
+        return new ArrayList<>(Arrays.asList(ordered));
+    }
+}
@@ -0,0 +1,102 @@
+//A question about the tags of dates, such as "holiday AND NOT work" or "any of birthday, anniversary"
+
+package core;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class TagQuery {
+    private final Set<String> allOf; // every one of these tags
+    private final Set<String> anyOf; // at least one of these tags, no condition when empty
+    private final Set<String> noneOf; // none of these tags
+
+    // Tags are compared ignoring case, like the custom types
+    public TagQuery(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        this.allOf = normalize(allOf);
+        this.anyOf = normalize(anyOf);
+        this.noneOf = normalize(noneOf);
+    }
+
+    public static TagQuery allOf(Collection<String> tags) {
+        return new TagQuery(tags, Set.of(), Set.of());
+    }
+
+    public static TagQuery anyOf(Collection<String> tags) {
+        return new TagQuery(Set.of(), tags, Set.of());
+    }
+
+    // The same query that also leaves out dates with any of the tags
+    public TagQuery excluding(Collection<String> tags) {
+        Set<String> excluded = new LinkedHashSet<>(noneOf);
+        excluded.addAll(tags);
+        return new TagQuery(allOf, anyOf, excluded);
+    }
+
+    private static Set<String> normalize(Collection<String> tags) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String tag : tags) {
+            normalized.add(tag.toLowerCase());
+        }
+        return Set.copyOf(normalized);
+    }
+
+    public Set<String> getAllOf() {
+        return allOf;
+    }
+
+    public Set<String> getAnyOf() {
+        return anyOf;
+    }
+
+    public Set<String> getNoneOf() {
+        return noneOf;
+    }
+
+    // Returns true if the date's tags answer the query, for checking a single date without the index
+    public boolean matches(Date date) {
+        for (String tag : allOf) {
+            if (!date.hasTag(tag)) {
+                return false;
+            }
+        }
+        boolean anyMatched = anyOf.isEmpty();
+        for (String tag : anyOf) {
+            anyMatched |= date.hasTag(tag);
+        }
+        if (!anyMatched) {
+            return false;
+        }
+        for (String tag : noneOf) {
+            if (date.hasTag(tag)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Written the way a user would say it, for example "holiday AND (birthday OR anniversary) AND NOT work"
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (String tag : allOf) {
+            append(text, tag);
+        }
+        if (anyOf.size() == 1) {
+            append(text, anyOf.iterator().next());
+        } else if (!anyOf.isEmpty()) {
+            append(text, "(" + String.join(" OR ", anyOf) + ")");
+        }
+        for (String tag : noneOf) {
+            append(text, "NOT " + tag);
+        }
+        return text.length() == 0 ? "All" : text.toString();
+    }
+
+    private static void append(StringBuilder text, String term) {
+        if (text.length() > 0) {
+            text.append(" AND ");
+        }
+        text.append(term);
+    }
+}
@@ -0,0 +1,105 @@
+//Keeps the dates of each type in order of their next occurrence, stickied dates first
+
+package core;
+
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TypeIndex {
+    // Types are stored in lower case like the custom types of the DateManager
+    private final Map<String, DayOfYearIndex> stickiedDates = new HashMap<>();
+    private final Map<String, DayOfYearIndex> unstickiedDates = new HashMap<>();
+    // Remembers the type each date was indexed under, so it can be found even after the date was edited in place
+    private final Map<Date, String> indexedTypes = new HashMap<>();
+    private MonthDay today;
+
+    public TypeIndex(MonthDay today) {
+        this.today = today;
+    }
+
+    private static String normalize(String type) {
+        return type.toLowerCase();
+    }
+
+    // Adds the date under its current type, moving it if it was indexed before
+    public void add(Date date) {
+        remove(date);
+        if (date.getType() == null) {
+            return;
+        }
+        String type = normalize(date.getType());
+        Map<String, DayOfYearIndex> indexes = date.isStickied() ? stickiedDates : unstickiedDates;
+        indexes.computeIfAbsent(type, key -> new DayOfYearIndex(today)).add(date);
+        indexedTypes.put(date, type);
+    }
+
+    public void remove(Date date) {
+        String type = indexedTypes.remove(date);
+        if (type == null) {
+            return;
+        }
+        // The stickied flag may have been changed in place, so look in both
+        removeFrom(stickiedDates, type, date);
+        removeFrom(unstickiedDates, type, date);
+    }
+
+    private static void removeFrom(Map<String, DayOfYearIndex> indexes, String type, Date date) {
+        DayOfYearIndex index = indexes.get(type);
+        if (index != null && index.remove(date) && index.isEmpty()) {
+            indexes.remove(type);
+        }
+    }
+
+    public void clear() {
+        stickiedDates.clear();
+        unstickiedDates.clear();
+        indexedTypes.clear();
+    }
+
+    // Returns a live view of the dates of the type, without copying them
+    public OrderedDateView getView(String type) {
+        String key = normalize(type);
+        return new OrderedDateView(() -> stickiedDates.get(key), () -> unstickiedDates.get(key));
+    }
+
+    // Returns the dates of the type in order, in time proportional to the number of matches
+    public List<Date> getDates(String type) {
+        String key = normalize(type);
+        DayOfYearIndex stickied = stickiedDates.get(key);
+        DayOfYearIndex unstickied = unstickiedDates.get(key);
+        List<Date> dates = new ArrayList<>((stickied == null ? 0 : stickied.size())
+                + (unstickied == null ? 0 : unstickied.size()));
+        if (stickied != null) {
+            dates.addAll(stickied);
+        }
+        if (unstickied != null) {
+            dates.addAll(unstickied);
+        }
+        return dates;
+    }
+
+    // Returns the dates of the type from one day up to and including another, stickied dates first
+    public List<Date> getDatesBetween(String type, MonthDay from, MonthDay to) {
+        String key = normalize(type);
+        List<Date> dates = new ArrayList<>();
+        DayOfYearIndex stickied = stickiedDates.get(key);
+        if (stickied != null) {
+            stickied.collectBetween(from, to, dates);
+        }
+        DayOfYearIndex unstickied = unstickiedDates.get(key);
+        if (unstickied != null) {
+            unstickied.collectBetween(from, to, dates);
+        }
+        return dates;
+    }
+
+    // Starts the order of every type at the given day
+    public void rotateTo(MonthDay today) {
+        this.today = today;
+        stickiedDates.values().forEach(index -> index.rotateTo(today));
+        unstickiedDates.values().forEach(index -> index.rotateTo(today));
+    }
+}
@@ -0,0 +1,182 @@
+//Collects changes made through the DateManager and writes them to disk on a background thread, at most once per interval
+
+package core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class WriteBehindPersister {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 500;
+
+    // The state of the DateManager at one point in time, used to write a snapshot
+    public static class State {
+        final List<Date> stickiedDates;
+        final List<Date> unstickiedDates;
+        final Set<String> customTypes;
+
+        public State(List<Date> stickiedDates, List<Date> unstickiedDates, Set<String> customTypes) {
+            this.stickiedDates = stickiedDates;
+            this.unstickiedDates = unstickiedDates;
+            this.customTypes = customTypes;
+        }
+    }
+
+    private final boolean journaled; // appends changes to the journal instead of rewriting every file
+    private final long flushIntervalMillis;
+    private final Supplier<State> stateSupplier;
+    private final ScheduledExecutorService writer;
+    private final Thread shutdownHook;
+
+    // Only the latest record of each date is kept, so a burst of edits to one date is written once
+    private final Map<Long, byte[]> pendingDateRecords = new LinkedHashMap<>();
+    private final List<byte[]> pendingTypeRecords = new ArrayList<>();
+    private boolean dirty;
+    private boolean snapshotFailed;
+    private boolean flushScheduled;
+    private int pendingWrites;
+    private volatile long lastFlushLatencyNanos;
+
+    public WriteBehindPersister(boolean journaled, long flushIntervalMillis, Supplier<State> stateSupplier) {
+        this.journaled = journaled;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.stateSupplier = stateSupplier;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "date-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Make sure nothing is lost if the JVM exits without the window being closed
+        this.shutdownHook = new Thread(this::flush, "date-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    // Records an add, update or delete of a date
+    public synchronized void recordDateChange(byte recordType, Date date) {
+        if (journaled) {
+            pendingDateRecords.put(date.getId(), FileDatabaseHelper.encodeJournalRecord(recordType, date));
+        }
+        markDirty();
+    }
+
+    // Records a new custom type
+    public synchronized void recordTypeAdded(String type) {
+        if (journaled) {
+            pendingTypeRecords.add(FileDatabaseHelper.encodeTypeRecord(type));
+        }
+        markDirty();
+    }
+
+    // Marks the state as changed and makes sure a flush is coming up
+    private synchronized void markDirty() {
+        dirty = true;
+        pendingWrites++;
+        if (!flushScheduled) {
+            flushScheduled = true;
+            try {
+                writer.schedule(() -> flushNow(false), flushIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled = false; // closed, the final flush already happened
+            }
+        }
+    }
+
+    // Writes all pending changes and waits until they are on disk
+    public void flush() {
+        runOnWriter(false);
+    }
+
+    // Writes a full snapshot and empties the journal, waits until it is on disk
+    public void saveSnapshot() {
+        runOnWriter(true);
+    }
+
+    private void runOnWriter(boolean fullSnapshot) {
+        try {
+            writer.submit(() -> flushNow(fullSnapshot)).get();
+        } catch (RejectedExecutionException e) {
+            flushNow(fullSnapshot); // the writer is gone, write on the calling thread instead
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error saving dates: " + e.getCause().getMessage());
+        }
+    }
+
+    // Does the actual writing on the writer thread, the lock is only held while taking the pending changes
+    // so edits that record a change never wait for the disk
+    private void flushNow(boolean fullSnapshot) {
+        long start = System.nanoTime();
+        List<byte[]> records;
+        synchronized (this) {
+            flushScheduled = false;
+            if (!dirty && !fullSnapshot) {
+                return;
+            }
+            fullSnapshot |= snapshotFailed;
+            snapshotFailed = false;
+            records = new ArrayList<>(pendingTypeRecords);
+            records.addAll(pendingDateRecords.values());
+            pendingTypeRecords.clear();
+            pendingDateRecords.clear();
+            dirty = false;
+            pendingWrites = 0;
+        }
+
+        if (!journaled) {
+            writeSnapshot(null);
+        } else if (!records.isEmpty() && !FileDatabaseHelper.appendToJournal(records)) {
+            // The journal could not be written, fall back to a snapshot so the changes are not lost
+            writeSnapshot(null);
+        } else if (fullSnapshot || FileDatabaseHelper.getJournalSize() > FileDatabaseHelper.JOURNAL_COMPACTION_THRESHOLD) {
+            writeSnapshot(FileDatabaseHelper.rotateJournal());
+        }
+        lastFlushLatencyNanos = System.nanoTime() - start;
+        DateTrackerMetrics.SAVE.record(lastFlushLatencyNanos);
+    }
+
+    // Writes a snapshot of the current state, journal segments are only dropped once it is safely written
+    private void writeSnapshot(File lastSegment) {
+        State state = stateSupplier.get();
+        boolean written = FileDatabaseHelper.writeSnapshot(state.stickiedDates, state.unstickiedDates,
+                state.customTypes);
+        if (!written) {
+            synchronized (this) {
+                snapshotFailed = true;
+            }
+            markDirty(); // try again on the next flush
+        } else if (lastSegment != null) {
+            FileDatabaseHelper.deleteJournalSegmentsUpTo(lastSegment);
+        }
+    }
+
+    // Number of changes recorded since the last flush
+    public synchronized int getPendingWriteCount() {
+        return pendingWrites;
+    }
+
+    // How long the last flush took to write, in milliseconds
+    public double getLastFlushLatencyMillis() {
+        return lastFlushLatencyNanos / 1_000_000.0;
+    }
+
+    // Writes everything that is pending and stops the writer thread
+    public void close() {
+        flush();
+        writer.shutdown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, the hook is running or has run
+        }
+    }
+}
@@ -0,0 +1,84 @@
+//Makes synthetic date stores of any size for the benchmarks, or for trying the application with many dates
+
+package benchmarks;
+
+import core.Date;
+import core.DayOfYearIndex;
+import core.FileDatabaseHelper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class DatasetGenerator {
+    public static final long SEED = 42; // the same seed gives the same dates, so runs can be compared
+    public static final String[] TYPES = { "holiday", "work", "birthday", "anniversary", "family", "travel" };
+
+    private DatasetGenerator() {
+    }
+
+    // Returns count dates with ids 1 to count, spread over every day of the year including Feb 29.
+    // About 1 in 20 is stickied and about a third carry extra tags.
+    public static List<Date> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Date> dates = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            MonthDay day = DayOfYearIndex.dayOf(random.nextInt(DayOfYearIndex.DAYS_IN_YEAR));
+            Date date = new Date(i, "Event " + i, day.getMonthValue(), day.getDayOfMonth(),
+                    TYPES[random.nextInt(TYPES.length)], random.nextInt(20) == 0);
+            if (random.nextInt(3) == 0) {
+                date.setExtraTags(List.of(TYPES[random.nextInt(TYPES.length)], TYPES[random.nextInt(TYPES.length)]));
+            }
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    // Writes the dates as a store in the directory, in the files the DateManager reads
+    public static void writeStore(Path directory, List<Date> dates) throws IOException {
+        Files.createDirectories(directory);
+        System.setProperty("datetracker.dir", directory.toString());
+        List<Date> stickied = new ArrayList<>();
+        List<Date> unstickied = new ArrayList<>();
+        for (Date date : dates) {
+            (date.isStickied() ? stickied : unstickied).add(date);
+        }
+        if (!FileDatabaseHelper.writeSnapshot(stickied, unstickied, Set.of(TYPES))) {
+            throw new IOException("could not write the store to " + directory);
+        }
+    }
+
+    // Writes a store of count dates to a new temporary directory and makes it the data folder
+    public static Path createStore(int count) throws IOException {
+        Path directory = Files.createTempDirectory("datetracker-bench");
+        writeStore(directory, generate(count, SEED));
+        return directory;
+    }
+
+    public static void deleteStore(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // Usage: DatasetGenerator <count> [directory], the directory defaults to the working directory
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: DatasetGenerator <count> [directory]");
+            System.exit(2);
+        }
+        int count = Integer.parseInt(args[0]);
+        Path directory = Path.of(args.length == 2 ? args[1] : ".");
+        writeStore(directory, generate(count, SEED));
+        System.out.println("Wrote " + count + " dates to " + directory.toAbsolutePath().normalize());
+    }
+}
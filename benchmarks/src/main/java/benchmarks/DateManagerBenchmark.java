@@ -0,0 +1,117 @@
+//Measures the DateManager operations behind every edit and every filter of the main window
+
+package benchmarks;
+
+import core.Date;
+import core.DateManager;
+import core.TagQuery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateManagerBenchmark {
+    // Upcoming filter and tag query like the ones the main window offers
+    private static final int UPCOMING_DAYS = 30;
+    private static final TagQuery TAG_QUERY = TagQuery.allOf(List.of("holiday")).excluding(List.of("work"));
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private Path directory;
+    private DateManager dateManager;
+    private String[] dayStrings; // "mm/dd" strings as typed into the search
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = DatasetGenerator.createStore(size);
+        // A flush interval longer than the run keeps disk writes out of the measured operations
+        dateManager = new DateManager(true, TimeUnit.HOURS.toMillis(1));
+        Random random = new Random(DatasetGenerator.SEED);
+        dayStrings = new String[1024];
+        for (int i = 0; i < dayStrings.length; i++) {
+            MonthDay day = MonthDay.of(1 + random.nextInt(12), 1 + random.nextInt(28));
+            dayStrings[i] = day.getMonthValue() + "/" + day.getDayOfMonth();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dateManager.close();
+        DatasetGenerator.deleteStore(directory);
+    }
+
+    // Moves an existing date to another day, what the edit dialog does
+    @Benchmark
+    public Date addOrUpdateDate() {
+        long id = 1 + (next++ % size);
+        Date date = dateManager.getDateById(id).copy();
+        date.setDay(1 + next % 12, 1 + next % 28);
+        dateManager.addOrUpdateDate(date);
+        return date;
+    }
+
+    // Adds a new date and removes it again, so the store keeps its size
+    @Benchmark
+    public Date addAndRemoveDate() {
+        Date date = new Date("Benchmark", 1 + next % 12, 1 + next++ % 28, "work", false);
+        dateManager.addOrUpdateDate(date);
+        dateManager.removeDate(date);
+        return date;
+    }
+
+    @Benchmark
+    public List<Date> getSortedDates() {
+        return dateManager.getSortedDates();
+    }
+
+    @Benchmark
+    public List<Date> getDatesOfType() {
+        return dateManager.getDatesOfType(DatasetGenerator.TYPES[next++ % DatasetGenerator.TYPES.length]);
+    }
+
+    @Benchmark
+    public List<Date> findDateByString() {
+        return dateManager.findDatesByString(dayStrings[next++ & (dayStrings.length - 1)]);
+    }
+
+    // The filters of MainGUI.filterDatesByType and filterDatesByTags with the upcoming filter set
+    @Benchmark
+    public List<Date> filterUpcoming() {
+        return dateManager.getUpcoming(UPCOMING_DAYS);
+    }
+
+    @Benchmark
+    public List<Date> filterUpcomingOfType() {
+        return dateManager.getUpcoming(UPCOMING_DAYS, "holiday");
+    }
+
+    @Benchmark
+    public List<Date> filterByTags() {
+        return dateManager.getDatesMatching(TAG_QUERY);
+    }
+}
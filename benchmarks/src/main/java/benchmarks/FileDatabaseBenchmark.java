@@ -0,0 +1,86 @@
+//Measures writing and reading the dat files, the cost of every snapshot and of starting the application
+
+package benchmarks;
+
+import core.ColumnarDateStore;
+import core.Date;
+import core.FileDatabaseHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileDatabaseBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private Path directory;
+    private List<Date> stickiedDates;
+    private List<Date> unstickiedDates;
+    private Set<String> types;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("datetracker-bench");
+        List<Date> dates = DatasetGenerator.generate(size, DatasetGenerator.SEED);
+        DatasetGenerator.writeStore(directory, dates);
+        stickiedDates = new ArrayList<>();
+        unstickiedDates = new ArrayList<>();
+        for (Date date : dates) {
+            (date.isStickied() ? stickiedDates : unstickiedDates).add(date);
+        }
+        types = Set.of(DatasetGenerator.TYPES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DatasetGenerator.deleteStore(directory);
+    }
+
+    // Writes all three files, what every snapshot of the DateManager costs
+    @Benchmark
+    public boolean writeSnapshot() {
+        return FileDatabaseHelper.writeSnapshot(stickiedDates, unstickiedDates, types);
+    }
+
+    @Benchmark
+    public List<Date> readDatesFromFile() {
+        return FileDatabaseHelper.readDatesFromFile(FileDatabaseHelper.UNSTICKIED_DATES_FILE);
+    }
+
+    // Both files and the journal into a map, what the command line used before the columnar store
+    @Benchmark
+    public Map<Long, Date> readAllDates() {
+        return FileDatabaseHelper.readAllDates();
+    }
+
+    @Benchmark
+    public ColumnarDateStore readColumnarStore() {
+        return FileDatabaseHelper.readColumnarStore();
+    }
+}
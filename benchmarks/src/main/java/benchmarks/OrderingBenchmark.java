@@ -0,0 +1,92 @@
+//Compares the ways of putting dates in order of next occurrence: the comparator the DateManager first sorted
+//with, a sort on the precomputed next occurrence, and the day-of-year index that replaced sorting
+
+package benchmarks;
+
+import core.Date;
+import core.DayOfYearIndex;
+import core.DayRolloverService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderingBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private List<Date> dates;
+    private DayRolloverService dayRollover;
+    private DayOfYearIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dates = DatasetGenerator.generate(size, DatasetGenerator.SEED);
+        dayRollover = new DayRolloverService(Clock.systemDefaultZone());
+        index = new DayOfYearIndex(dayRollover.getTodayMonthDay(), dates);
+    }
+
+    // The comparator of the first DateManager.createDateComparator, kept here as the baseline.
+    // It reads the clock and makes two LocalDates on every comparison.
+    private static final Comparator<Date> ORIGINAL_COMPARATOR = (date1, date2) -> {
+        MonthDay today = MonthDay.now();
+        LocalDate date1NextOccurrence = date1.getDay()
+                .atYear(today.isAfter(date1.getDay()) ? LocalDate.now().getYear() + 1 : LocalDate.now().getYear());
+        LocalDate date2NextOccurrence = date2.getDay()
+                .atYear(today.isAfter(date2.getDay()) ? LocalDate.now().getYear() + 1 : LocalDate.now().getYear());
+        return date1NextOccurrence.compareTo(date2NextOccurrence);
+    };
+
+    @Benchmark
+    public List<Date> originalComparatorSort() {
+        List<Date> sorted = new ArrayList<>(dates);
+        sorted.sort(ORIGINAL_COMPARATOR);
+        return sorted;
+    }
+
+    // The same order from the table of next occurrences the rollover service keeps for today
+    @Benchmark
+    public List<Date> nextOccurrenceSort() {
+        List<Date> sorted = new ArrayList<>(dates);
+        sorted.sort(Comparator.comparingLong(dayRollover::nextOccurrenceEpochDay));
+        return sorted;
+    }
+
+    // Building the index orders every date without comparing any two of them
+    @Benchmark
+    public DayOfYearIndex buildDayOfYearIndex() {
+        return new DayOfYearIndex(dayRollover.getTodayMonthDay(), dates);
+    }
+
+    // Reading an index that is already built, what the DateManager does once the dates are loaded
+    @Benchmark
+    public void iterateDayOfYearIndex(Blackhole blackhole) {
+        for (Date date : index) {
+            blackhole.consume(date);
+        }
+    }
+}
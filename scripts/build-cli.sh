@@ -0,0 +1,29 @@
+#!/bin/sh
+# Compiles the headless classes into build/cli/datetracker-cli.jar and records a class-data sharing (AppCDS)
+# archive for the CLI. Archived classes must come from a jar, not a directory.
+# The archive holds the classes every command loads, already parsed and verified, which is most of the start time.
+set -e
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/build/cli"
+JAR="$OUT/datetracker-cli.jar"
+rm -rf "$OUT"
+mkdir -p "$OUT/classes"
+javac -d "$OUT/classes" "$ROOT/Final Code"/core/*.java "$ROOT/Final Code"/cli/*.java
+jar --create --file "$JAR" --main-class cli.DateTrackerCli -C "$OUT/classes" .
+rm -rf "$OUT/classes"
+
+# Training runs in a scratch directory so no real dates are touched, one per command so all their classes are listed
+TRAIN=$(mktemp -d)
+trap 'rm -rf "$TRAIN"' EXIT
+cd "$TRAIN"
+run() {
+    java -Xshare:off -XX:DumpLoadedClassList="$TRAIN/classes.$1" -cp "$JAR" cli.DateTrackerCli "$@" >/dev/null || true
+}
+run list
+run next 30
+run add Training 1/2 training
+run remove 1
+run days-between 2024/01/01 2024/12/25
+cat "$TRAIN"/classes.* | sort -u > "$OUT/classes.lst"
+java -Xshare:dump -XX:SharedClassListFile="$OUT/classes.lst" -XX:SharedArchiveFile="$OUT/cli.jsa" -cp "$JAR" >/dev/null
+echo "Built $OUT with class-data archive cli.jsa"
@@ -0,0 +1,8 @@
+#!/bin/sh
+# Runs the command line tracker on the dates in the current directory, build it first with build-cli.sh.
+# C1 only and the serial collector start fastest for a run this short.
+OUT=$(cd "$(dirname "$0")/.." && pwd)/build/cli
+if [ -f "$OUT/cli.jsa" ]; then
+    exec java -XX:SharedArchiveFile="$OUT/cli.jsa" -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -cp "$OUT/datetracker-cli.jar" cli.DateTrackerCli "$@"
+fi
+exec java -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -cp "$OUT/datetracker-cli.jar" cli.DateTrackerCli "$@"
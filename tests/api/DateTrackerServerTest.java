@@ -0,0 +1,136 @@
+//Checks the status codes and ETags of the JSON API against a DateManager in a temporary folder
+
+package api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import core.Date;
+import core.DateManager;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DateTrackerServerTest {
+    private static final Clock JUNE_1 = Clock.fixed(Instant.parse("2026-06-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path folder;
+
+    private DateManager dateManager;
+    private DateTrackerServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        System.setProperty("datetracker.dir", folder.toString());
+        dateManager = new DateManager(true, 3_600_000L, JUNE_1);
+        server = new DateTrackerServer(dateManager, 0); // any free port
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+        dateManager.close();
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void addsReadsAndRemovesADate() throws Exception {
+        HttpResponse<String> added = send("POST", "/dates",
+                "{\"name\":\"Leap\",\"month\":2,\"day\":29,\"type\":\"holiday\"}", null);
+        assertEquals(201, added.statusCode());
+        String location = added.headers().firstValue("Location").orElseThrow();
+        long id = Long.parseLong(location.substring("/dates/".length()));
+        assertEquals("Leap", dateManager.getDateById(id).getName());
+
+        HttpResponse<String> read = send("GET", location, null, null);
+        assertEquals(200, read.statusCode());
+        assertTrue(read.body().contains("\"Leap\""), read.body());
+        String etag = read.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, send("GET", location, null, etag).statusCode());
+        assertEquals(304, send("GET", "/dates", null, etag).statusCode());
+        assertEquals(200, send("GET", "/types", null, null).statusCode());
+        assertEquals(200, send("GET", "/dates/upcoming?days=30", null, null).statusCode());
+
+        HttpResponse<String> deleted = send("DELETE", location, null, null);
+        assertEquals(204, deleted.statusCode());
+        assertNotEquals(etag, deleted.headers().firstValue("ETag").orElseThrow());
+        assertEquals(404, send("GET", location, null, null).statusCode());
+        assertEquals(404, send("DELETE", location, null, null).statusCode());
+    }
+
+    @Test
+    void rejectsBadRequests() throws Exception {
+        assertEquals(400, send("POST", "/dates", "{\"name\":\"No type\",\"month\":1,\"day\":1}", null).statusCode());
+        assertEquals(400, send("POST", "/dates", "{\"month\":2,\"day\":30,\"type\":\"work\"}", null).statusCode());
+        assertEquals(400, send("POST", "/dates", "not json", null).statusCode());
+        assertEquals(400, send("GET", "/dates/upcoming?days=many", null, null).statusCode());
+        assertEquals(404, send("GET", "/nothing", null, null).statusCode());
+        assertEquals(404, send("GET", "/dates/abc", null, null).statusCode());
+        assertEquals(405, send("PATCH", "/dates", "{}", null).statusCode());
+
+        Date date = new Date("Trip", 7, 4, "trip", false);
+        dateManager.addOrUpdateDate(date);
+        assertEquals(400, send("PUT", "/dates/" + date.getId(), "{\"day\":31,\"month\":6}", null).statusCode());
+        assertEquals(404, send("PUT", "/dates/999999", "{\"name\":\"Other\"}", null).statusCode());
+    }
+
+    @Test
+    void updatesOnlyTheVersionTheClientHas() throws Exception {
+        Date date = new Date("Trip", 7, 4, "trip", false);
+        dateManager.addOrUpdateDate(date);
+        String path = "/dates/" + date.getId();
+        String etag = send("GET", path, null, null).headers().firstValue("ETag").orElseThrow();
+
+        // Fields left out keep their value
+        HttpResponse<String> updated = sendIfMatch(path, "{\"name\":\"Longer trip\"}", etag);
+        assertEquals(200, updated.statusCode());
+        Date current = dateManager.getDateById(date.getId());
+        assertEquals("Longer trip", current.getName());
+        assertEquals(7, current.getDay().getMonthValue());
+        assertEquals(4, current.getDay().getDayOfMonth());
+        String newEtag = updated.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(etag, newEtag);
+
+        // The old version is stale now, the change is refused and nothing moves
+        assertEquals(412, sendIfMatch(path, "{\"name\":\"Stale\"}", etag).statusCode());
+        assertEquals("Longer trip", dateManager.getDateById(date.getId()).getName());
+
+        // Without If-Match the update goes through whatever changed in between
+        dateManager.addOrUpdateDate(new Date("Other", 1, 1, "work", false));
+        assertEquals(200, send("PUT", path, "{\"stickied\":true}", null).statusCode());
+        assertTrue(dateManager.getDateById(date.getId()).isStickied());
+        assertEquals(200, sendIfMatch(path, "{\"name\":\"Any\"}", "*").statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = request(method, path, body);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> sendIfMatch(String path, String body, String ifMatch) throws Exception {
+        HttpRequest.Builder request = request("PUT", path, body).header("If-Match", ifMatch);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path)).method(method,
+                body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+    }
+}
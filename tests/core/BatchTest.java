@@ -0,0 +1,172 @@
+//Checks that a batch is applied and announced as one change, and undone completely when it fails
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchTest {
+    private static final Clock JUNE_1 = Clock.fixed(Instant.parse("2026-06-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path folder;
+
+    private DateManager dateManager;
+    private Date birthday;
+    private Date trip;
+
+    @BeforeEach
+    void startWithThreeDates() {
+        System.setProperty("datetracker.dir", folder.toString());
+        dateManager = new DateManager(true, 3_600_000L, JUNE_1);
+        dateManager.batch(editor -> {
+            for (Date date : dateManager.getAllDates()) {
+                editor.removeDateById(date.getId());
+            }
+            editor.addOrUpdateDate(new Date("Birthday", 3, 14, "birthday", true));
+            editor.addOrUpdateDate(new Date("Trip", 7, 4, "trip", false));
+            editor.addOrUpdateDate(new Date("Leap", 2, 29, "holiday", false));
+        });
+        birthday = dateManager.getAllDates().get(0);
+        trip = dateManager.getAllDates().get(1);
+    }
+
+    @AfterEach
+    void closeDateManager() {
+        dateManager.close();
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void appliesEveryChangeAndTellsListenersOnce() {
+        List<List<DateChangeEvent>> notifications = new ArrayList<>();
+        dateManager.addDateUpdateListener(new DateUpdateListener() {
+            @Override
+            public void onDateUpdated() {
+            }
+
+            @Override
+            public void onDatesChanged(List<DateChangeEvent> events) {
+                notifications.add(events);
+            }
+        });
+        long versionBefore = dateManager.getSnapshot().getVersion();
+
+        dateManager.batch(editor -> {
+            editor.updateDate(trip.getId(), "Longer trip", 8, 1, "trip", List.of("family"), true);
+            editor.removeDateById(birthday.getId());
+            editor.addOrUpdateDate(new Date("New", 6, 2, "work", false));
+            editor.addCustomType("Errands");
+        });
+
+        assertEquals(1, notifications.size());
+        assertEquals(versionBefore + 1, dateManager.getSnapshot().getVersion());
+        assertEquals(List.of("Longer trip", "New", "Leap"), names(dateManager.getAllDates()));
+        assertNull(dateManager.getDateById(birthday.getId()));
+        assertTrue(dateManager.getCustomTypes().contains("errands"));
+        assertEquals(1, dateManager.getDatesMatching(TagQuery.anyOf(List.of("family"))).size());
+    }
+
+    @Test
+    void undoesEveryChangeWhenTheEditsThrow() {
+        DateSnapshot before = dateManager.getSnapshot();
+        Map<Long, String> stateBefore = state(dateManager.getAllDates());
+        List<String> typesBefore = new ArrayList<>(dateManager.getCustomTypes());
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> dateManager.batch(editor -> {
+            editor.updateDate(trip.getId(), "Changed", 12, 25, "brandnew", List.of("alsonew"), true);
+            editor.setStickied(birthday.getId(), false);
+            editor.removeDateById(birthday.getId());
+            editor.addOrUpdateDate(new Date("Added", 1, 1, "work", false));
+            editor.addCustomType("Errands");
+            throw new IllegalStateException("stop here");
+        }));
+        assertEquals("stop here", thrown.getMessage());
+
+        // Nothing was published, and the dates already published were never changed
+        assertSame(before, dateManager.getSnapshot());
+        assertSame(trip, dateManager.getDateById(trip.getId()));
+        assertEquals("Trip", trip.getName());
+        assertTrue(birthday.isStickied());
+
+        // The indexes behind the queries are back the way they were
+        assertEquals(stateBefore, state(dateManager.getBetween(MonthDay.of(1, 1), MonthDay.of(12, 31))));
+        assertEquals(List.of(trip.getId()), ids(dateManager.getDatesOfType("trip")));
+        assertTrue(dateManager.getDatesMatching(TagQuery.anyOf(List.of("brandnew", "alsonew"))).isEmpty());
+        assertEquals(typesBefore.size(), dateManager.getCustomTypes().size());
+        assertFalse(dateManager.getCustomTypes().contains("errands"));
+
+        // The next change publishes the old dates again, with the id the failed batch had handed out
+        Date added = new Date("After", 5, 5, "work", false);
+        dateManager.addOrUpdateDate(added);
+        stateBefore.put(added.getId(), "After 05-05 work false");
+        assertEquals(stateBefore, state(dateManager.getAllDates()));
+        assertEquals(List.of(), ids(dateManager.getDatesMatching(TagQuery.anyOf(List.of("brandnew")))));
+
+        // and only that change reaches the files
+        dateManager.close();
+        dateManager = new DateManager(true, 3_600_000L, JUNE_1);
+        assertEquals(stateBefore, state(dateManager.getAllDates()));
+    }
+
+    @Test
+    void aFailingInnerBatchUndoesTheOuterOneToo() {
+        Map<Long, String> stateBefore = state(dateManager.getAllDates());
+
+        assertThrows(DateTimeException.class, () -> dateManager.batch(outer -> {
+            outer.removeDateById(trip.getId());
+            dateManager.batch(inner -> {
+                inner.addOrUpdateDate(new Date("Inner", 9, 9, "work", false));
+                inner.updateDate(birthday.getId(), "Birthday", 2, 30, "birthday", true); // no such day
+            });
+        }));
+
+        assertEquals(stateBefore, state(dateManager.getAllDates()));
+        assertEquals(3, dateManager.getBetween(MonthDay.of(1, 1), MonthDay.of(12, 31)).size());
+    }
+
+    // Every date as id and a line of its fields, sorted by id, so the comparison ignores the order within a day
+    private static Map<Long, String> state(List<Date> dates) {
+        Map<Long, String> state = new TreeMap<>();
+        for (Date date : dates) {
+            state.put(date.getId(), date.getName() + " " + date.getDay().toString().substring(2) + " "
+                    + String.join(",", date.getTags()) + " " + date.isStickied());
+        }
+        return state;
+    }
+
+    private static List<String> names(List<Date> dates) {
+        List<String> names = new ArrayList<>();
+        for (Date date : dates) {
+            names.add(date.getName());
+        }
+        return names;
+    }
+
+    private static List<Long> ids(List<Date> dates) {
+        List<Long> ids = new ArrayList<>();
+        for (Date date : dates) {
+            ids.add(date.getId());
+        }
+        return ids;
+    }
+}
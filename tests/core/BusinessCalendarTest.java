@@ -0,0 +1,137 @@
+//Checks the working day counts against counting day by day, around Feb 29 in particular
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BusinessCalendarTest {
+    private static final Clock JUNE_1 = Clock.fixed(Instant.parse("2026-06-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void useTempFolder() {
+        System.setProperty("datetracker.dir", folder.toString());
+    }
+
+    @AfterEach
+    void clearFolder() {
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void countsLikeGoingDayByDay() {
+        List<Date> dates = new ArrayList<>();
+        dates.add(new Date("Leap holiday", 2, 29, "holiday", false));
+        dates.add(new Date("New year", 1, 1, "Holiday", false));
+        dates.add(new Date("Twice", 1, 1, "holiday", false));
+        Date tagged = new Date("Tagged", 12, 24, "work", false);
+        tagged.setExtraTags(List.of("HOLIDAY"));
+        dates.add(tagged);
+        dates.add(new Date("Not a holiday", 3, 2, "work", false));
+        BusinessCalendar calendar = new BusinessCalendar(dates, 2026);
+
+        Set<MonthDay> holidays = Set.of(MonthDay.of(2, 29), MonthDay.of(1, 1), MonthDay.of(12, 24));
+        // Leap years, common years, 2100 which is not a leap year, and years far outside the ones built up front
+        for (int year : new int[] { 2023, 2024, 2000, 2100, 1800, 2300 }) {
+            checkYearsAround(calendar, holidays, year);
+        }
+    }
+
+    @Test
+    void followsHolidaysAddedAndRemoved() {
+        DateManager dateManager = new DateManager(true, 3_600_000L, JUNE_1);
+        BusinessCalendar calendar = null;
+        try {
+            dateManager.batch(editor -> {
+                for (Date date : dateManager.getAllDates()) {
+                    editor.removeDateById(date.getId());
+                }
+            });
+            calendar = new BusinessCalendar(dateManager);
+            Set<MonthDay> holidays = new HashSet<>();
+            checkYearsAround(calendar, holidays, 2028);
+
+            Date leapDay = new Date("Leap holiday", 2, 29, "holiday", false);
+            dateManager.addOrUpdateDate(leapDay);
+            holidays.add(MonthDay.of(2, 29));
+            checkYearsAround(calendar, holidays, 2028);
+            checkYearsAround(calendar, holidays, 2027);
+
+            // Moved to a day that is a holiday as an extra tag only
+            dateManager.updateDate(leapDay.getId(), "Moved", 3, 1, "work", List.of("holiday"), false);
+            holidays.clear();
+            holidays.add(MonthDay.of(3, 1));
+            checkYearsAround(calendar, holidays, 2028);
+
+            // Two dates on one day, the day stays a holiday until both are gone
+            Date other = new Date("Same day", 3, 1, "holiday", false);
+            dateManager.addOrUpdateDate(other);
+            dateManager.updateDate(leapDay.getId(), "Moved", 3, 1, "work", List.of(), false);
+            checkYearsAround(calendar, holidays, 2028);
+            dateManager.removeDateById(other.getId());
+            holidays.clear();
+            checkYearsAround(calendar, holidays, 2028);
+        } finally {
+            if (calendar != null) {
+                calendar.close();
+            }
+            dateManager.close();
+        }
+    }
+
+    // Compares every day and random counts of days in the years on each side of the year
+    private static void checkYearsAround(BusinessCalendar calendar, Set<MonthDay> holidays, int year) {
+        LocalDate first = LocalDate.of(year - 1, 1, 1);
+        LocalDate last = LocalDate.of(year + 1, 12, 31);
+        List<LocalDate> days = new ArrayList<>();
+        List<Integer> before = new ArrayList<>(); // working days from first up to each day
+        int count = 0;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            boolean working = isWorkingDay(day, holidays);
+            assertEquals(working, calendar.isBusinessDay(day.toEpochDay()), day.toString());
+            days.add(day);
+            before.add(count);
+            count += working ? 1 : 0;
+        }
+        Random random = new Random(year);
+        for (int i = 0; i < 2_000; i++) {
+            int from = random.nextInt(days.size());
+            int to = random.nextInt(days.size());
+            long expected = Math.abs(before.get(to) - before.get(from));
+            assertEquals(expected, calendar.businessDaysBetween(days.get(from).toEpochDay(), days.get(to).toEpochDay()),
+                    days.get(from) + " to " + days.get(to));
+        }
+    }
+
+    // Outside leap years a Feb 29 holiday is kept on Feb 28
+    private static boolean isWorkingDay(LocalDate day, Set<MonthDay> holidays) {
+        if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        for (MonthDay holiday : holidays) {
+            if (holiday.atYear(day.getYear()).equals(day)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,154 @@
+//Checks that the columnar store answers like the DateManager it was read for
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColumnarDateStoreTest {
+    private static final Clock JUNE_1 = Clock.fixed(Instant.parse("2026-06-01T12:00:00Z"), ZoneOffset.UTC);
+    private static final MonthDay TODAY = MonthDay.of(6, 1);
+
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void useTempFolder() {
+        System.setProperty("datetracker.dir", folder.toString());
+    }
+
+    @AfterEach
+    void clearFolder() {
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void readsTheSameDatesAsTheDateManager() {
+        DateManager dateManager = new DateManager(true, 3_600_000L, JUNE_1);
+        try {
+            Random random = new Random(11);
+            dateManager.batch(editor -> {
+                for (int i = 0; i < 1_000; i++) {
+                    editor.addOrUpdateDate(randomDate(random, i));
+                }
+            });
+            dateManager.flush();
+            // Journaled changes, including new tags and removals, are read on top of the snapshot
+            List<Date> dates = dateManager.getAllDates();
+            for (int i = 0; i < 200; i++) {
+                Date date = dates.get(random.nextInt(dates.size()));
+                if (i % 3 == 0) {
+                    dateManager.removeDateById(date.getId());
+                } else {
+                    dateManager.updateDate(date.getId(), "Changed " + i, date.getDay().getMonthValue(),
+                            date.getDay().getDayOfMonth(), "trip", List.of("tag" + i % 4), i % 2 == 0);
+                }
+            }
+            dateManager.flush();
+
+            ColumnarDateStore store = FileDatabaseHelper.readColumnarStore();
+
+            assertEquals(dateManager.getAllDates().size(), store.size());
+            assertSameOrder(dateManager.getAllDates(), store.getAllDates(TODAY));
+            assertSameOrder(dateManager.getDatesOfType("TRIP"), store.getDatesOfType("trip", TODAY));
+            assertSameOrder(dateManager.getBetween(MonthDay.of(12, 1), MonthDay.of(1, 31)),
+                    store.getBetween(MonthDay.of(12, 1), MonthDay.of(1, 31)));
+            for (Date date : dateManager.getAllDates()) {
+                JournalTest.assertSameDate(date, store.getDateById(date.getId()));
+            }
+        } finally {
+            dateManager.close();
+        }
+    }
+
+    @Test
+    void followsPutsAndRemovesLikeAMap() {
+        ColumnarDateStore store = new ColumnarDateStore();
+        Map<Long, Date> expected = new LinkedHashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 5_000; i++) {
+            long id = 1 + random.nextInt(800);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(id) != null, store.remove(id));
+            } else {
+                // Renaming over and over leaves garbage in the name arena, which has to be compacted correctly
+                Date date = randomDate(random, i);
+                date.setId(id);
+                store.put(date);
+                expected.put(id, date);
+            }
+        }
+        store.trimToSize();
+
+        assertEquals(expected.size(), store.size());
+        for (Date date : expected.values()) {
+            JournalTest.assertSameDate(date, store.getDateById(date.getId()));
+        }
+        assertNull(store.getDateById(100_000));
+        assertFalse(store.remove(100_000));
+        assertThrows(IllegalArgumentException.class, () -> store.put(new Date("No id", 1, 1, "work", false)));
+    }
+
+    @Test
+    void viewsAreReadOnly() {
+        ColumnarDateStore store = new ColumnarDateStore();
+        store.put(new Date(1, "One", 1, 1, "work", false));
+        Date view = store.getDateById(1);
+        assertThrows(UnsupportedOperationException.class, () -> view.setExtraTags(List.of("other")));
+        assertTrue(store.getDatesOfType("missing", TODAY).isEmpty());
+    }
+
+    private static Date randomDate(Random random, int i) {
+        MonthDay day = DayOfYearIndex.dayOf(random.nextInt(DayOfYearIndex.DAYS_IN_YEAR));
+        String name = i % 40 == 0 ? null : "Date " + i + (i % 9 == 0 ? " ünïcode €" : "");
+        String type = i % 17 == 0 ? null : List.of("work", "Holiday", "birthday").get(i % 3);
+        Date date = new Date(name, day.getMonthValue(), day.getDayOfMonth(), type, i % 6 == 0);
+        if (i % 4 == 0) {
+            date.setExtraTags(List.of("red", "family" + i % 3));
+        }
+        return date;
+    }
+
+    // Both put stickied dates first and each part by days from today. The dates of a day may be in another
+    // order, the store moves rows around when it removes one, so each day is compared as a set.
+    private static void assertSameOrder(List<Date> expected, List<Date> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(runsByDay(expected), runsByDay(actual));
+    }
+
+    private static List<Map<Long, String>> runsByDay(List<Date> dates) {
+        List<Map<Long, String>> runs = new ArrayList<>();
+        Map<Long, String> run = null;
+        Date previous = null;
+        for (Date date : dates) {
+            boolean sameRun = previous != null && previous.getDay().equals(date.getDay())
+                    && previous.isStickied() == date.isStickied();
+            if (!sameRun) {
+                run = new TreeMap<>();
+                runs.add(run);
+            }
+            run.put(date.getId(), date.getName() + " " + date.getDay() + " " + date.getTags() + " " + date.isStickied());
+            previous = date;
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,131 @@
+//Checks that the binary date format gives back what was written and refuses damaged files
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DateCodecTest {
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void useTempFolder() {
+        System.setProperty("datetracker.dir", folder.toString());
+    }
+
+    @AfterEach
+    void clearFolder() {
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void decodesWhatWasEncoded() throws IOException {
+        List<Date> dates = sampleDates();
+        Set<String> types = new LinkedHashSet<>();
+
+        List<Date> decoded = DateCodec.decode(ByteBuffer.wrap(encode(dates, List.of("unused"))), types);
+
+        assertEquals(dates.size(), decoded.size());
+        for (int i = 0; i < dates.size(); i++) {
+            JournalTest.assertSameDate(dates.get(i), decoded.get(i));
+        }
+        assertEquals(Set.of("unused", "work", "trip", "family", "red"), types);
+    }
+
+    @Test
+    void readsBackTheFilesItWrites() {
+        List<Date> dates = sampleDates();
+        FileDatabaseHelper.writeDatesToFile(dates, FileDatabaseHelper.UNSTICKIED_DATES_FILE);
+        FileDatabaseHelper.writeCustomTypesToFile(Set.of("work", "ünïcode"));
+
+        List<Date> read = FileDatabaseHelper.readDatesFromFile(FileDatabaseHelper.UNSTICKIED_DATES_FILE);
+
+        assertEquals(dates.size(), read.size());
+        for (int i = 0; i < dates.size(); i++) {
+            JournalTest.assertSameDate(dates.get(i), read.get(i));
+        }
+        assertEquals(Set.of("work", "ünïcode"), FileDatabaseHelper.readCustomTypesFromFile());
+    }
+
+    @Test
+    void refusesAFileWithAChangedByte() throws IOException {
+        byte[] file = encode(sampleDates(), List.of());
+        for (int i = DateCodec.HEADER_SIZE; i < file.length; i++) {
+            byte[] damaged = file.clone();
+            damaged[i] ^= 0x10;
+            IOException e = assertThrows(IOException.class, () -> DateCodec.decode(ByteBuffer.wrap(damaged), null));
+            assertEquals("checksum mismatch", e.getMessage());
+        }
+    }
+
+    @Test
+    void refusesACutOffFile() throws IOException {
+        byte[] file = encode(sampleDates(), List.of());
+        byte[] cut = Arrays.copyOf(file, file.length - 5);
+        assertThrows(IOException.class, () -> DateCodec.decode(ByteBuffer.wrap(cut), null));
+    }
+
+    @Test
+    void refusesOtherFilesAndNewerVersions() throws IOException {
+        byte[] notDates = "just some text file".getBytes();
+        assertThrows(IOException.class, () -> DateCodec.decode(ByteBuffer.wrap(notDates), null));
+
+        byte[] newer = encode(sampleDates(), List.of());
+        newer[4] = (byte) (DateCodec.FORMAT_VERSION + 1);
+        IOException e = assertThrows(IOException.class, () -> DateCodec.decode(ByteBuffer.wrap(newer), null));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    @Test
+    void packsEveryDayOfTheYear() {
+        for (int slot = 0; slot < DayOfYearIndex.DAYS_IN_YEAR; slot++) {
+            int month = DayOfYearIndex.dayOf(slot).getMonthValue();
+            int day = DayOfYearIndex.dayOf(slot).getDayOfMonth();
+            int packed = DateCodec.packDay(month, day);
+            assertEquals(month, DateCodec.unpackMonth(packed));
+            assertEquals(day, DateCodec.unpackDay(packed));
+        }
+    }
+
+    private static List<Date> sampleDates() {
+        List<Date> dates = new ArrayList<>();
+        dates.add(new Date(1, "New Year", 1, 1, "work", true));
+        dates.add(new Date(2, null, 2, 29, null, false));
+        Date tagged = new Date(300_000, "Trip, \"quoted\" and ünïcode", 12, 31, "trip", false);
+        tagged.setExtraTags(List.of("family", "red"));
+        dates.add(tagged);
+        return dates;
+    }
+
+    // The same bytes the dat files hold, checksum included
+    private static byte[] encode(List<Date> dates, List<String> types) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        DateCodec.writeHeader(out);
+        DateCodec.writeBody(out, dates, types);
+        out.flush();
+        byte[] file = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(file, DateCodec.HEADER_SIZE, file.length - DateCodec.HEADER_SIZE);
+        ByteBuffer.wrap(file).putInt(DateCodec.CHECKSUM_OFFSET, (int) crc.getValue());
+        return file;
+    }
+}
@@ -0,0 +1,107 @@
+//Checks the epoch day arithmetic against java.time, around Feb 29 in particular
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DayCalculatorTest {
+    @Test
+    void epochDaysMatchLocalDate() {
+        for (LocalDate day = LocalDate.of(1600, 1, 1); day.isBefore(LocalDate.of(2401, 1, 1)); day = day.plusDays(1)) {
+            long epochDay = DayCalculator.epochDay(day.getYear(), day.getMonthValue(), day.getDayOfMonth());
+            assertEquals(day.toEpochDay(), epochDay, day.toString());
+            assertEquals(day.getYear(), DayCalculator.yearOf(epochDay), day.toString());
+        }
+    }
+
+    @Test
+    void parsesLikeTheFormatter() {
+        for (int year : new int[] { 1, 1900, 2000, 2023, 2024, 2100, 9999 }) {
+            for (int month = 1; month <= 12; month++) {
+                for (int day = 1; day <= 31; day++) {
+                    String text = String.format("%04d/%02d/%02d", year, month, day);
+                    // Days past the end of a month, like Feb 29 in a common year, move back to its last day
+                    long expected = LocalDate.parse(text, DayCalculator.FORMAT).toEpochDay();
+                    assertEquals(expected, DayCalculator.parseEpochDay(text), text);
+                }
+            }
+        }
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), DayCalculator.parseEpochDay("  2024/02/29 "));
+        for (String text : List.of("", "2024-02-29", "2024/2/29", "2024/13/01", "2024/00/10", "2024/01/32",
+                "0000/01/01", "2024/01/1x", "12024/01/01")) {
+            assertEquals(DayCalculator.INVALID, DayCalculator.parseEpochDay(text), text);
+        }
+    }
+
+    @Test
+    void countsDaysAcrossFeb29() {
+        assertEquals(2, DayCalculator.daysBetween("2024/02/28", "2024/03/01"));
+        assertEquals(1, DayCalculator.daysBetween("2023/02/28", "2023/03/01"));
+        assertEquals(1, DayCalculator.daysBetween("2100/02/28", "2100/03/01"));
+        assertEquals(2, DayCalculator.daysBetween("2000/03/01", "2000/02/28"));
+        assertEquals(366, DayCalculator.daysBetween("2024/01/01", "2025/01/01"));
+        assertEquals(DayCalculator.INVALID, DayCalculator.daysBetween("2024/01/01", "tomorrow"));
+    }
+
+    @Test
+    void daysUntilMatchMonthDayAtYear() {
+        List<Date> dates = new ArrayList<>();
+        for (int slot = 0; slot < DayOfYearIndex.DAYS_IN_YEAR; slot++) {
+            MonthDay day = DayOfYearIndex.dayOf(slot);
+            dates.add(new Date("x", day.getMonthValue(), day.getDayOfMonth(), "work", false));
+        }
+        // More dates than one chunk, so the parallel path is taken as well
+        while (dates.size() < 20_000) {
+            dates.addAll(dates.subList(0, Math.min(dates.size(), 20_000 - dates.size())));
+        }
+        for (LocalDate anchor : List.of(LocalDate.of(2023, 2, 28), LocalDate.of(2023, 3, 1), LocalDate.of(2024, 2, 28),
+                LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1), LocalDate.of(2099, 12, 31))) {
+            long[] days = DayCalculator.daysUntil(anchor, dates);
+            for (int i = 0; i < dates.size(); i++) {
+                MonthDay day = dates.get(i).getDay();
+                LocalDate next = day.atYear(anchor.getYear());
+                if (next.isBefore(anchor)) {
+                    next = day.atYear(anchor.getYear() + 1);
+                }
+                assertEquals(ChronoUnit.DAYS.between(anchor, next), days[i], day + " from " + anchor);
+            }
+        }
+    }
+
+    @Test
+    void processesLinesInOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 50_000; i++) {
+            LocalDate first = start.plusDays(i % 1_000);
+            LocalDate second = first.plusDays(i % 400);
+            if (i % 997 == 0) {
+                input.append("not a day,").append(second.format(DayCalculator.FORMAT)).append('\n');
+                expected.append("invalid\n");
+                continue;
+            }
+            char separator = " ,\t".charAt(i % 3);
+            input.append(second.format(DayCalculator.FORMAT)).append(separator)
+                    .append(first.format(DayCalculator.FORMAT)).append(i % 2 == 0 ? "\n" : "\r\n");
+            expected.append(i % 400).append('\n');
+        }
+        StringWriter output = new StringWriter();
+
+        DayCalculator.Result result = DayCalculator.process(new StringReader(input.toString()), output);
+
+        assertEquals(expected.toString(), output.toString());
+        assertEquals(50_000, result.getLines());
+        assertEquals(51, result.getInvalid());
+    }
+}
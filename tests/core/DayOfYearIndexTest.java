@@ -0,0 +1,147 @@
+//Checks the order of the day buckets against a plain sort by days from today
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DayOfYearIndexTest {
+    @Test
+    void ordersByDaysFromTodayAndWrapsAroundTheYear() {
+        DayOfYearIndex index = new DayOfYearIndex(MonthDay.of(6, 1));
+        Date may31 = date(1, 5, 31);
+        Date jun1 = date(2, 6, 1);
+        Date dec31 = date(3, 12, 31);
+        Date jan1 = date(4, 1, 1);
+        Date feb29 = date(5, 2, 29);
+        Date alsoJun1 = date(6, 6, 1);
+        for (Date date : List.of(may31, jun1, dec31, jan1, feb29, alsoJun1)) {
+            index.add(date);
+        }
+
+        // Dates on the same day keep the order they were added in
+        assertEquals(List.of(jun1, alsoJun1, dec31, jan1, feb29, may31), new ArrayList<>(index));
+    }
+
+    @Test
+    void positionsMatchTheIterationOrderThroughChanges() {
+        Random random = new Random(42);
+        DayOfYearIndex index = new DayOfYearIndex(MonthDay.of(3, 15));
+        List<Date> expected = new ArrayList<>();
+        for (int i = 1; i <= 2_000; i++) {
+            Date date = randomDate(random, i);
+            index.add(date);
+            expected.add(date);
+        }
+        for (int i = 0; i < 500; i++) {
+            Date removed = expected.remove(random.nextInt(expected.size()));
+            assertTrue(index.remove(removed));
+        }
+        assertFalse(index.remove(date(99_999, 1, 1)));
+
+        expected.sort(byDaysFrom(MonthDay.of(3, 15))); // a stable sort, like the buckets
+        assertEquals(expected, new ArrayList<>(index));
+        assertEquals(expected.size(), index.size());
+        for (int position = 0; position < expected.size(); position++) {
+            assertEquals(expected.get(position), index.get(position));
+            assertEquals(position, index.indexOf(expected.get(position)));
+        }
+        assertEquals(expected, index.freeze());
+        assertThrows(IndexOutOfBoundsException.class, () -> index.get(expected.size()));
+    }
+
+    @Test
+    void readdingADateMovesItToItsNewDay() {
+        DayOfYearIndex index = new DayOfYearIndex(MonthDay.of(1, 1));
+        Date first = date(1, 3, 3);
+        index.add(first);
+        index.add(date(2, 4, 4));
+        Date moved = date(1, 5, 5); // same id, so the same date on another day
+        index.add(moved);
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(2L, 1L), ids(index));
+        assertEquals(MonthDay.of(5, 5), index.get(1).getDay());
+    }
+
+    @Test
+    void rotatingToTheNextDayMovesTheStartOfTheOrder() {
+        DayOfYearIndex index = new DayOfYearIndex(MonthDay.of(12, 31));
+        index.add(date(1, 1, 1));
+        index.add(date(2, 12, 31));
+        index.add(date(3, 2, 29));
+        FrozenDateList before = index.freeze();
+        assertEquals(List.of(2L, 1L, 3L), ids(index));
+
+        index.rotateTo(MonthDay.of(1, 1));
+        assertEquals(List.of(1L, 3L, 2L), ids(index));
+        index.rotateTo(MonthDay.of(3, 1));
+        assertEquals(List.of(2L, 1L, 3L), ids(before), "a frozen list never changes");
+        assertEquals(List.of(2L, 1L, 3L), ids(index));
+        assertEquals(0, index.indexOf(date(2, 12, 31)));
+    }
+
+    @Test
+    void collectsRangesThatWrapAroundTheYear() {
+        DayOfYearIndex index = new DayOfYearIndex(MonthDay.of(7, 1));
+        for (int slot = 0; slot < DayOfYearIndex.DAYS_IN_YEAR; slot++) {
+            MonthDay day = DayOfYearIndex.dayOf(slot);
+            index.add(date(slot + 1, day.getMonthValue(), day.getDayOfMonth()));
+        }
+
+        List<Date> between = new ArrayList<>();
+        index.collectBetween(MonthDay.of(12, 30), MonthDay.of(1, 2), between);
+        assertEquals(List.of(MonthDay.of(12, 30), MonthDay.of(12, 31), MonthDay.of(1, 1), MonthDay.of(1, 2)),
+                between.stream().map(Date::getDay).toList());
+
+        List<Date> on = new ArrayList<>();
+        index.collectOn(DayOfYearIndex.slotOf(2, 29), on);
+        assertEquals(1, on.size());
+        assertEquals(MonthDay.of(2, 29), on.get(0).getDay());
+    }
+
+    @Test
+    void slotsCoverEveryDayOfALeapYearOnce() {
+        for (int slot = 0; slot < DayOfYearIndex.DAYS_IN_YEAR; slot++) {
+            MonthDay day = DayOfYearIndex.dayOf(slot);
+            assertEquals(slot, DayOfYearIndex.slotOf(day));
+            assertTrue(DayOfYearIndex.isValidDay(day.getMonthValue(), day.getDayOfMonth()));
+        }
+        assertEquals(DayOfYearIndex.FEB_29_SLOT, DayOfYearIndex.slotOf(2, 29));
+        assertFalse(DayOfYearIndex.isValidDay(2, 30));
+        assertFalse(DayOfYearIndex.isValidDay(13, 1));
+        assertFalse(DayOfYearIndex.isValidDay(4, 31));
+    }
+
+    private static Date date(long id, int month, int day) {
+        return new Date(id, "Date " + id, month, day, "work", false);
+    }
+
+    private static Date randomDate(Random random, long id) {
+        MonthDay day = DayOfYearIndex.dayOf(random.nextInt(DayOfYearIndex.DAYS_IN_YEAR));
+        return date(id, day.getMonthValue(), day.getDayOfMonth());
+    }
+
+    private static Comparator<Date> byDaysFrom(MonthDay today) {
+        int start = DayOfYearIndex.slotOf(today);
+        return Comparator.comparingInt(date -> Math.floorMod(DayOfYearIndex.slotOf(date.getDay()) - start,
+                DayOfYearIndex.DAYS_IN_YEAR));
+    }
+
+    private static List<Long> ids(Iterable<Date> dates) {
+        List<Long> ids = new ArrayList<>();
+        for (Date date : dates) {
+            ids.add(date.getId());
+        }
+        return ids;
+    }
+}
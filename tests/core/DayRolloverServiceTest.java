@@ -0,0 +1,145 @@
+//Checks the cached next occurrences against MonthDay.atYear and that a new day re-keys the order once
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DayRolloverServiceTest {
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void useTempFolder() {
+        System.setProperty("datetracker.dir", folder.toString());
+    }
+
+    @AfterEach
+    void clearFolder() {
+        System.clearProperty("datetracker.dir");
+    }
+
+    // A clock the test moves by hand
+    private static class SettableClock extends Clock {
+        private Instant instant;
+
+        SettableClock(LocalDate day) {
+            set(day);
+        }
+
+        void set(LocalDate day) {
+            instant = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Test
+    void nextOccurrencesMatchMonthDayAtYearAroundLeapYears() {
+        SettableClock clock = new SettableClock(LocalDate.of(2023, 1, 1));
+        DayRolloverService rollover = new DayRolloverService(clock);
+        // Every day from a common year through the leap years 2024 and 2028 and the common year 2100
+        for (LocalDate today = LocalDate.of(2023, 1, 1); today.isBefore(LocalDate.of(2029, 1, 1));
+                today = today.plusDays(1)) {
+            checkEveryDay(clock, rollover, today);
+        }
+        for (LocalDate today = LocalDate.of(2099, 12, 1); today.isBefore(LocalDate.of(2100, 4, 1));
+                today = today.plusDays(1)) {
+            checkEveryDay(clock, rollover, today);
+        }
+    }
+
+    private static void checkEveryDay(SettableClock clock, DayRolloverService rollover, LocalDate today) {
+        clock.set(today);
+        rollover.checkRollover();
+        assertEquals(today, rollover.getToday());
+        for (int slot = 0; slot < DayOfYearIndex.DAYS_IN_YEAR; slot++) {
+            MonthDay day = DayOfYearIndex.dayOf(slot);
+            LocalDate next = day.atYear(today.getYear());
+            if (next.isBefore(today)) {
+                next = day.atYear(today.getYear() + 1);
+            }
+            Date date = new Date("x", day.getMonthValue(), day.getDayOfMonth(), "work", false);
+            assertEquals(next.toEpochDay(), rollover.nextOccurrenceEpochDay(date), day + " seen on " + today);
+            assertEquals(next.toEpochDay() - today.toEpochDay(), rollover.daysUntil(date));
+        }
+    }
+
+    @Test
+    void rollsOverOnlyWhenTheDayChanges() {
+        SettableClock clock = new SettableClock(LocalDate.of(2024, 2, 28));
+        DayRolloverService rollover = new DayRolloverService(clock);
+        List<LocalDate> newDays = new ArrayList<>();
+        rollover.addRolloverListener(newDays::add);
+
+        assertFalse(rollover.checkRollover());
+        clock.set(LocalDate.of(2024, 2, 29));
+        assertTrue(rollover.checkRollover());
+        assertFalse(rollover.checkRollover());
+
+        assertEquals(List.of(LocalDate.of(2024, 2, 29)), newDays);
+        assertEquals(MonthDay.of(2, 29), rollover.getTodayMonthDay());
+    }
+
+    @Test
+    void aNewDayMovesTheStartOfTheDateManagerOrder() {
+        SettableClock clock = new SettableClock(LocalDate.of(2025, 12, 31));
+        DateManager dateManager = new DateManager(false, 3_600_000L, clock);
+        try {
+            dateManager.batch(editor -> {
+                for (Date date : dateManager.getAllDates()) {
+                    editor.removeDateById(date.getId());
+                }
+                editor.addOrUpdateDate(new Date("Jan 1", 1, 1, "work", false));
+                editor.addOrUpdateDate(new Date("Dec 31", 12, 31, "work", false));
+            });
+            assertEquals(List.of("Dec 31", "Jan 1"), names(dateManager.getAllDates()));
+            assertEquals(1, dateManager.daysUntil(dateManager.getAllDates().get(1)));
+
+            clock.set(LocalDate.of(2026, 1, 1));
+            assertTrue(dateManager.getDayRollover().checkRollover());
+
+            assertEquals(List.of("Jan 1", "Dec 31"), names(dateManager.getAllDates()));
+            assertEquals(0, dateManager.daysUntil(dateManager.getAllDates().get(0)));
+            assertEquals(364, dateManager.daysUntil(dateManager.getAllDates().get(1)));
+        } finally {
+            dateManager.close();
+        }
+    }
+
+    private static List<String> names(List<Date> dates) {
+        List<String> names = new ArrayList<>();
+        for (Date date : dates) {
+            names.add(date.getName());
+        }
+        return names;
+    }
+}
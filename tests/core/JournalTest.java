@@ -0,0 +1,133 @@
+//Checks that journal records replay into the same dates and types they were written from
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTest {
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void useTempFolder() {
+        System.setProperty("datetracker.dir", folder.toString());
+    }
+
+    @AfterEach
+    void clearFolder() {
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void replaysAddsUpdatesDeletesAndTypes() {
+        Date first = new Date(1, "First", 3, 4, "work", false);
+        Date second = new Date(2, null, 2, 29, null, true);
+        Date updated = new Date(1, "First again", 12, 31, "trip", true);
+        updated.setExtraTags(List.of("family", "red"));
+        FileDatabaseHelper.appendToJournal(List.of(
+                FileDatabaseHelper.encodeJournalRecord(FileDatabaseHelper.JOURNAL_ADD, first),
+                FileDatabaseHelper.encodeJournalRecord(FileDatabaseHelper.JOURNAL_ADD, second),
+                FileDatabaseHelper.encodeTypeRecord("trip"),
+                FileDatabaseHelper.encodeJournalRecord(FileDatabaseHelper.JOURNAL_UPDATE, updated),
+                FileDatabaseHelper.encodeJournalRecord(FileDatabaseHelper.JOURNAL_DELETE, second)));
+
+        Map<Long, Date> dates = new HashMap<>();
+        Set<String> types = new HashSet<>();
+        int applied = FileDatabaseHelper.replayJournal(journal(), dates, types);
+
+        assertEquals(5, applied);
+        assertEquals(Set.of("trip"), types);
+        assertEquals(Set.of(1L), dates.keySet());
+        assertSameDate(updated, dates.get(1L));
+    }
+
+    @Test
+    void keepsStringsLongerThanWriteUtfAllows() {
+        String name = "é".repeat(40_000); // 80,000 bytes of UTF-8
+        String tag = "t".repeat(70_000);
+        Date date = new Date(7, name, 5, 6, "work", false);
+        date.setExtraTags(List.of(tag));
+        FileDatabaseHelper.appendToJournal(List.of(
+                FileDatabaseHelper.encodeJournalRecord(FileDatabaseHelper.JOURNAL_ADD, date),
+                FileDatabaseHelper.encodeTypeRecord(tag)));
+
+        Map<Long, Date> dates = new HashMap<>();
+        Set<String> types = new HashSet<>();
+        FileDatabaseHelper.replayJournal(journal(), dates, types);
+
+        assertSameDate(date, dates.get(7L));
+        assertEquals(Set.of(tag), types);
+    }
+
+    @Test
+    void ignoresARecordCutOffAtTheEnd() throws IOException {
+        Date kept = new Date(1, "Kept", 1, 2, "work", false);
+        byte[] cut = FileDatabaseHelper.encodeJournalRecord(FileDatabaseHelper.JOURNAL_ADD,
+                new Date(2, "Cut off", 3, 4, "work", false));
+        FileDatabaseHelper.appendToJournal(List.of(
+                FileDatabaseHelper.encodeJournalRecord(FileDatabaseHelper.JOURNAL_ADD, kept)));
+        try (FileOutputStream out = new FileOutputStream(journal(), true)) {
+            out.write(Arrays.copyOf(cut, cut.length - 3));
+        }
+
+        Map<Long, Date> dates = new HashMap<>();
+        int applied = FileDatabaseHelper.replayJournal(journal(), dates, new HashSet<>());
+
+        assertEquals(1, applied);
+        assertSameDate(kept, dates.get(1L));
+        assertNull(dates.get(2L));
+    }
+
+    @Test
+    void readAllDatesSeesChangesThatAreOnlyJournaled() {
+        DateManager dateManager = new DateManager(true, 3_600_000L);
+        try {
+            dateManager.flush(); // the first snapshot, everything after it goes to the journal
+            Date added = new Date("Added", 4, 5, "work", false);
+            dateManager.addOrUpdateDate(added);
+            dateManager.updateDate(added.getId(), "Renamed", 6, 7, "work", List.of("blue"), true);
+            Date removed = dateManager.getAllDates().get(0);
+            dateManager.removeDateById(removed.getId());
+            dateManager.flush();
+            assertTrue(FileDatabaseHelper.getJournalSize() > 0);
+
+            Map<Long, Date> stored = FileDatabaseHelper.readAllDates();
+            assertSameDate(dateManager.getDateById(added.getId()), stored.get(added.getId()));
+            assertFalse(stored.containsKey(removed.getId()));
+            assertEquals(dateManager.getAllDates().size(), stored.size());
+        } finally {
+            dateManager.close();
+        }
+    }
+
+    private static File journal() {
+        return FileDatabaseHelper.dataFile(FileDatabaseHelper.JOURNAL_FILE);
+    }
+
+    static void assertSameDate(Date expected, Date actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDay(), actual.getDay());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getExtraTags(), actual.getExtraTags());
+        assertEquals(expected.isStickied(), actual.isStickied());
+    }
+}
@@ -0,0 +1,111 @@
+//Checks that files written with Java serialization by older versions are converted once and kept as a backup
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LegacyMigrationTest {
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void useTempFolder() {
+        System.setProperty("datetracker.dir", folder.toString());
+    }
+
+    @AfterEach
+    void clearFolder() {
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void convertsSerializedListsAndSets() throws IOException {
+        List<Date> stickied = new ArrayList<>(List.of(new Date(0, "Mom", 3, 14, "birthday", true)));
+        List<Date> unstickied = new ArrayList<>(List.of(new Date(0, "Leap", 2, 29, "holiday", false),
+                new Date(0, null, 12, 25, "holiday", false)));
+        Set<String> types = new HashSet<>(Set.of("holiday", "work", "birthday"));
+        serialize(FileDatabaseHelper.STICKIED_DATES_FILE, stickied);
+        serialize(FileDatabaseHelper.UNSTICKIED_DATES_FILE, unstickied);
+        serialize(FileDatabaseHelper.CUSTOM_TYPES_FILE, types);
+        byte[] original = Files.readAllBytes(file(FileDatabaseHelper.UNSTICKIED_DATES_FILE));
+
+        FileDatabaseHelper.migrateLegacyFiles();
+
+        assertDates(stickied, FileDatabaseHelper.readDatesFromFile(FileDatabaseHelper.STICKIED_DATES_FILE));
+        assertDates(unstickied, FileDatabaseHelper.readDatesFromFile(FileDatabaseHelper.UNSTICKIED_DATES_FILE));
+        assertEquals(types, FileDatabaseHelper.readCustomTypesFromFile());
+        assertArrayEquals(original, Files.readAllBytes(file(FileDatabaseHelper.UNSTICKIED_DATES_FILE + ".legacy")));
+
+        // Running it again finds nothing left to convert
+        FileDatabaseHelper.migrateLegacyFiles();
+        assertDates(unstickied, FileDatabaseHelper.readDatesFromFile(FileDatabaseHelper.UNSTICKIED_DATES_FILE));
+    }
+
+    @Test
+    void leavesAFileWithUnexpectedContentsAlone() throws IOException {
+        List<Object> mixed = new ArrayList<>(List.of(new Date("Fine", 1, 2, "work", false), 42));
+        serialize(FileDatabaseHelper.STICKIED_DATES_FILE, mixed);
+        byte[] original = Files.readAllBytes(file(FileDatabaseHelper.STICKIED_DATES_FILE));
+
+        FileDatabaseHelper.migrateLegacyFiles();
+
+        assertArrayEquals(original, Files.readAllBytes(file(FileDatabaseHelper.STICKIED_DATES_FILE)));
+        assertFalse(Files.exists(file(FileDatabaseHelper.STICKIED_DATES_FILE + ".legacy")));
+    }
+
+    @Test
+    void aDateManagerStartsFromConvertedFiles() throws IOException {
+        List<Date> stickied = new ArrayList<>(List.of(new Date("Mom", 3, 14, "birthday", true)));
+        List<Date> unstickied = new ArrayList<>(List.of(new Date("Leap", 2, 29, "holiday", false)));
+        serialize(FileDatabaseHelper.STICKIED_DATES_FILE, stickied);
+        serialize(FileDatabaseHelper.UNSTICKIED_DATES_FILE, unstickied);
+        serialize(FileDatabaseHelper.CUSTOM_TYPES_FILE, new HashSet<>(Set.of("holiday", "birthday")));
+
+        DateManager dateManager = new DateManager(true, 3_600_000L);
+        try {
+            List<Date> dates = dateManager.getAllDates();
+            assertEquals(2, dates.size());
+            assertEquals("Mom", dates.get(0).getName());
+            assertTrue(dates.get(0).getId() > 0, "loaded dates get an id");
+            assertTrue(dateManager.getCustomTypes().contains("birthday"));
+        } finally {
+            dateManager.close();
+        }
+    }
+
+    private Path file(String name) {
+        return FileDatabaseHelper.dataFile(name).toPath();
+    }
+
+    private void serialize(String name, Object contents) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file(name)))) {
+            out.writeObject(contents);
+        }
+    }
+
+    private static void assertDates(List<Date> expected, List<Date> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getDay(), actual.get(i).getDay());
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).isStickied(), actual.get(i).isStickied());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+//Checks that the memory-mapped archive answers like the DateManager whose files it was written from
+
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedDateStoreTest {
+    private static final Clock JUNE_1 = Clock.fixed(Instant.parse("2026-06-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path folder;
+
+    // The dates as the DateManager had them when it was closed, in its own order
+    private List<Date> managerDates;
+    private MappedDateStore archive;
+
+    @BeforeEach
+    void writeAnArchive() {
+        System.setProperty("datetracker.dir", folder.toString());
+        DateManager dateManager = new DateManager(true, 3_600_000L, JUNE_1);
+        try {
+            Random random = new Random(7);
+            dateManager.batch(editor -> {
+                for (int i = 0; i < 1_000; i++) {
+                    MonthDay day = DayOfYearIndex.dayOf(random.nextInt(DayOfYearIndex.DAYS_IN_YEAR));
+                    String name = i % 50 == 0 ? null : "Date " + i + (i % 7 == 0 ? " ünïcode €" : "");
+                    String type = i % 13 == 0 ? null : List.of("work", "holiday", "birthday").get(i % 3);
+                    editor.addOrUpdateDate(new Date(name, day.getMonthValue(), day.getDayOfMonth(), type, i % 5 == 0));
+                }
+            });
+            dateManager.flush();
+            // Some changes only reach the journal, the archive has to include them
+            List<Date> dates = dateManager.getAllDates();
+            for (int i = 0; i < 100; i++) {
+                Date date = dates.get(random.nextInt(dates.size()));
+                if (i % 2 == 0) {
+                    dateManager.removeDateById(date.getId());
+                } else {
+                    dateManager.updateDate(date.getId(), "Changed " + i, 2, 29, "trip", !date.isStickied());
+                }
+            }
+            dateManager.flush();
+            managerDates = dateManager.getAllDates();
+        } finally {
+            dateManager.close();
+        }
+        assertTrue(FileDatabaseHelper.writeArchive());
+        archive = FileDatabaseHelper.openArchive();
+        assertNotNull(archive);
+    }
+
+    @AfterEach
+    void clearFolder() {
+        System.clearProperty("datetracker.dir");
+    }
+
+    @Test
+    void holdsEveryDateOfTheDateManagerByDayOfTheYear() {
+        assertEquals(managerDates.size(), archive.size());
+        assertDates(byDay(managerDates, MonthDay.of(1, 1)), archive.getAllDates());
+    }
+
+    @Test
+    void rangesMatchTheDateManager() {
+        DateManager dateManager = new DateManager(true, 3_600_000L, JUNE_1);
+        try {
+            checkRange(dateManager, MonthDay.of(3, 1), MonthDay.of(3, 31));
+            checkRange(dateManager, MonthDay.of(12, 1), MonthDay.of(1, 31)); // wraps around the year
+            checkRange(dateManager, MonthDay.of(2, 29), MonthDay.of(2, 29));
+            checkRange(dateManager, MonthDay.of(1, 1), MonthDay.of(12, 31));
+            MonthDay leapDay = MonthDay.of(2, 29);
+            assertEquals(dateManager.getDatesOn(leapDay).size(), archive.getDatesOn(leapDay).size());
+        } finally {
+            dateManager.close();
+        }
+    }
+
+    @Test
+    void viewsAreReadOnly() {
+        Date view = archive.getAllDates().get(0);
+        assertThrows(UnsupportedOperationException.class, () -> view.setName("Other"));
+        assertThrows(IndexOutOfBoundsException.class, () -> archive.getAllDates().get(archive.size()));
+    }
+
+    @Test
+    void refusesAFileThatIsNotAnArchive() throws IOException {
+        Path other = folder.resolve("other.dat");
+        Files.write(other, new byte[4096]);
+        assertThrows(IOException.class, () -> MappedDateStore.open(other));
+    }
+
+    private void checkRange(DateManager dateManager, MonthDay from, MonthDay to) {
+        List<Date> expected = byDay(dateManager.getBetween(from, to), from);
+        assertDates(expected, archive.getBetween(from, to));
+    }
+
+    // Sorted by day counting from the first one, the archive keeps the dates of a day in the order it got them
+    // so only the days are compared in order and the dates of each day as a set
+    private static List<Date> byDay(List<Date> dates, MonthDay from) {
+        int start = DayOfYearIndex.slotOf(from);
+        List<Date> sorted = new ArrayList<>(dates);
+        sorted.sort(Comparator.comparingInt((Date date) -> Math.floorMod(DayOfYearIndex.slotOf(date.getDay()) - start,
+                DayOfYearIndex.DAYS_IN_YEAR)).thenComparingLong(Date::getId));
+        return sorted;
+    }
+
+    private static void assertDates(List<Date> expected, List<Date> actual) {
+        assertEquals(expected.size(), actual.size());
+        List<Date> sortedActual = new ArrayList<>(actual);
+        if (!expected.isEmpty()) {
+            MonthDay from = expected.get(0).getDay();
+            assertEquals(from, actual.get(0).getDay());
+            sortedActual = byDay(actual, from);
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Date want = expected.get(i);
+            Date got = sortedActual.get(i);
+            assertEquals(want.getId(), got.getId());
+            assertEquals(want.getName(), got.getName());
+            assertEquals(want.getDay(), got.getDay());
+            assertEquals(want.getType(), got.getType());
+            assertEquals(want.isStickied(), got.isStickied());
+        }
+    }
+}